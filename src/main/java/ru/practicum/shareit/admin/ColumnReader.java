@@ -0,0 +1,52 @@
+package ru.practicum.shareit.admin;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Последовательное чтение колонки снимка прямо из отображённого в память файла:
+ * значения декодируются по одному, по мере привязки к пакету вставки.
+ */
+final class ColumnReader {
+    private final ColumnType type;
+    private final ByteBuffer buffer;
+    private final int maskOffset;
+    private final ByteBuffer values;
+    private final ByteBuffer data;
+    private int row;
+
+    private ColumnReader(ColumnType type, ByteBuffer buffer, int maskOffset, ByteBuffer values, ByteBuffer data) {
+        this.type = type;
+        this.buffer = buffer;
+        this.maskOffset = maskOffset;
+        this.values = values;
+        this.data = data;
+    }
+
+    /**
+     * Открывает колонку с текущей позиции буфера и переводит буфер на начало следующей колонки.
+     */
+    static ColumnReader open(ByteBuffer buffer, ColumnType type, int rowCount) {
+        int maskOffset = buffer.position();
+        int valuesOffset = maskOffset + (rowCount + 7) / 8;
+        int end = valuesOffset + rowCount * type.width();
+        ByteBuffer data = null;
+        if (type.hasData()) {
+            long dataLength = 0;
+            for (int i = 0; i < rowCount; i++) {
+                dataLength += buffer.getInt(valuesOffset + i * type.width());
+            }
+            data = buffer.duplicate().position(end);
+            end = Math.toIntExact(end + dataLength);
+        }
+        ByteBuffer values = buffer.duplicate().position(valuesOffset);
+        buffer.position(end);
+        return new ColumnReader(type, buffer, maskOffset, values, data);
+    }
+
+    Object next() {
+        boolean isNull = (buffer.get(maskOffset + (row >> 3)) & (1 << (row & 7))) != 0;
+        row++;
+        Object value = type.readValue(values, data);
+        return isNull ? null : value;
+    }
+}
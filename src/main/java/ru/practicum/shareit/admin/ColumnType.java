@@ -0,0 +1,205 @@
+package ru.practicum.shareit.admin;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Тип колонки снимка. Значения колонки пишутся подряд, после битовой маски null-значений.
+ */
+enum ColumnType {
+    LONG {
+        @Override
+        Object read(ResultSet rs, int index) throws SQLException {
+            long value = rs.getLong(index);
+            return rs.wasNull() ? null : value;
+        }
+
+        @Override
+        void writeValues(DataOutputStream out, Object[] values) throws IOException {
+            for (Object value : values) {
+                out.writeLong(value == null ? 0 : (Long) value);
+            }
+        }
+
+        @Override
+        Object readValue(ByteBuffer values, ByteBuffer data) {
+            return values.getLong();
+        }
+
+        @Override
+        int width() {
+            return Long.BYTES;
+        }
+
+        @Override
+        int sqlType() {
+            return Types.BIGINT;
+        }
+    },
+    INT {
+        @Override
+        Object read(ResultSet rs, int index) throws SQLException {
+            int value = rs.getInt(index);
+            return rs.wasNull() ? null : value;
+        }
+
+        @Override
+        void writeValues(DataOutputStream out, Object[] values) throws IOException {
+            for (Object value : values) {
+                out.writeInt(value == null ? 0 : (Integer) value);
+            }
+        }
+
+        @Override
+        Object readValue(ByteBuffer values, ByteBuffer data) {
+            return values.getInt();
+        }
+
+        @Override
+        int width() {
+            return Integer.BYTES;
+        }
+
+        @Override
+        int sqlType() {
+            return Types.INTEGER;
+        }
+    },
+    BOOLEAN {
+        @Override
+        Object read(ResultSet rs, int index) throws SQLException {
+            boolean value = rs.getBoolean(index);
+            return rs.wasNull() ? null : value;
+        }
+
+        @Override
+        void writeValues(DataOutputStream out, Object[] values) throws IOException {
+            for (Object value : values) {
+                out.writeByte(Boolean.TRUE.equals(value) ? 1 : 0);
+            }
+        }
+
+        @Override
+        Object readValue(ByteBuffer values, ByteBuffer data) {
+            return values.get() != 0;
+        }
+
+        @Override
+        int width() {
+            return Byte.BYTES;
+        }
+
+        @Override
+        int sqlType() {
+            return Types.BOOLEAN;
+        }
+    },
+    TIMESTAMP {
+        @Override
+        Object read(ResultSet rs, int index) throws SQLException {
+            return rs.getObject(index, LocalDateTime.class);
+        }
+
+        @Override
+        void writeValues(DataOutputStream out, Object[] values) throws IOException {
+            for (Object value : values) {
+                if (value == null) {
+                    out.writeLong(0);
+                } else {
+                    LocalDateTime dateTime = (LocalDateTime) value;
+                    out.writeLong(dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + dateTime.getNano() / 1_000);
+                }
+            }
+        }
+
+        @Override
+        Object readValue(ByteBuffer values, ByteBuffer data) {
+            long micros = values.getLong();
+            return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                    (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+        }
+
+        @Override
+        int width() {
+            return Long.BYTES;
+        }
+
+        @Override
+        int sqlType() {
+            return Types.TIMESTAMP;
+        }
+    },
+    STRING {
+        @Override
+        Object read(ResultSet rs, int index) throws SQLException {
+            return rs.getString(index);
+        }
+
+        // Сначала все длины, затем все байты: так колонка читается без поиска границ значений
+        @Override
+        void writeValues(DataOutputStream out, Object[] values) throws IOException {
+            byte[][] encoded = new byte[values.length][];
+            for (int i = 0; i < values.length; i++) {
+                encoded[i] = values[i] == null ? new byte[0] : ((String) values[i]).getBytes(StandardCharsets.UTF_8);
+                out.writeInt(encoded[i].length);
+            }
+            for (byte[] bytes : encoded) {
+                out.write(bytes);
+            }
+        }
+
+        // В колонке значений лежат длины, сами байты строк — в отдельной области data
+        @Override
+        Object readValue(ByteBuffer values, ByteBuffer data) {
+            byte[] bytes = new byte[values.getInt()];
+            data.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        int width() {
+            return Integer.BYTES;
+        }
+
+        @Override
+        boolean hasData() {
+            return true;
+        }
+
+        @Override
+        int sqlType() {
+            return Types.VARCHAR;
+        }
+    };
+
+    abstract Object read(ResultSet rs, int index) throws SQLException;
+
+    abstract void writeValues(DataOutputStream out, Object[] values) throws IOException;
+
+    abstract Object readValue(ByteBuffer values, ByteBuffer data);
+
+    // Ширина значения в колонке значений
+    abstract int width();
+
+    abstract int sqlType();
+
+    boolean hasData() {
+        return false;
+    }
+
+    void bind(PreparedStatement ps, int index, Object value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, sqlType());
+        } else {
+            ps.setObject(index, value);
+        }
+    }
+}
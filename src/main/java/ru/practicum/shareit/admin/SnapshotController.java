@@ -0,0 +1,31 @@
+package ru.practicum.shareit.admin;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.admin.dto.SnapshotDto;
+
+/**
+ * Команды снимка для быстрого наполнения тестовых и staging-окружений.
+ * Включаются свойством shareit.admin.snapshot.enabled.
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping(path = "/admin/snapshot")
+@ConditionalOnProperty(name = "shareit.admin.snapshot.enabled", havingValue = "true")
+public class SnapshotController {
+    private final SnapshotService snapshotService;
+
+    @PostMapping("/dump")
+    public SnapshotDto dump(@RequestParam String name) {
+        return snapshotService.dump(name);
+    }
+
+    @PostMapping("/restore")
+    public SnapshotDto restore(@RequestParam String name) {
+        return snapshotService.restore(name);
+    }
+}
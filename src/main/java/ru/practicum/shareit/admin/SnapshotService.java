@@ -0,0 +1,304 @@
+package ru.practicum.shareit.admin;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.admin.dto.SnapshotDto;
+import ru.practicum.shareit.cache.CacheInvalidation;
+import ru.practicum.shareit.cache.CacheInvalidationBus;
+import ru.practicum.shareit.cache.CacheRegion;
+import ru.practicum.shareit.cache.OwnershipIndex;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.service.ItemCalendarCache;
+import ru.practicum.shareit.item.service.ItemNameIndex;
+import ru.practicum.shareit.item.service.ItemPopularityTracker;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Снимок таблиц users, items, bookings и comments в колоночном бинарном формате.
+ * Файл: заголовок, затем для каждой таблицы описание колонок и сами колонки подряд
+ * (битовая маска null-значений и значения фиксированной ширины, у строк — длины и байты).
+ * Восстановление читает файл через отображение в память и загружает строки пакетами.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "shareit.admin.snapshot.enabled", havingValue = "true")
+public class SnapshotService {
+    private static final int MAGIC = 0x53484953;
+    private static final int VERSION = 2;
+    private static final Pattern SNAPSHOT_NAME = Pattern.compile("[\\w.-]+");
+
+    // Порядок важен: при восстановлении таблицы загружаются так, чтобы внешние ключи уже существовали
+    private static final List<SnapshotTable> TABLES = List.of(
+            SnapshotTable.of("users",
+                    "id", ColumnType.LONG, "name", ColumnType.STRING, "email", ColumnType.STRING,
+                    "deleted", ColumnType.BOOLEAN),
+            SnapshotTable.of("items",
+                    "id", ColumnType.LONG, "name", ColumnType.STRING, "description", ColumnType.STRING,
+                    "available", ColumnType.BOOLEAN, "owner_id", ColumnType.LONG, "request_id", ColumnType.LONG,
+                    "deleted", ColumnType.BOOLEAN, "comment_count", ColumnType.LONG),
+            SnapshotTable.of("bookings",
+                    "id", ColumnType.LONG, "start_date", ColumnType.TIMESTAMP, "end_date", ColumnType.TIMESTAMP,
+                    "item_id", ColumnType.LONG, "booker_id", ColumnType.LONG, "status", ColumnType.INT),
+            SnapshotTable.of("comments",
+                    "id", ColumnType.LONG, "text", ColumnType.STRING, "item_id", ColumnType.LONG,
+                    "name", ColumnType.LONG, "created", ColumnType.TIMESTAMP));
+
+    // Регионы кэшей, которые другие узлы сбрасывают по id восстановленной строки
+    private static final Map<String, List<CacheRegion>> REGIONS = Map.of(
+            "users", List.of(CacheRegion.USER),
+            "items", List.of(CacheRegion.ITEM, CacheRegion.ITEM_BOOKINGS),
+            "bookings", List.of(CacheRegion.BOOKING));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final ItemNameIndex itemNameIndex;
+    private final ItemPopularityTracker itemPopularityTracker;
+    private final ItemCalendarCache itemCalendarCache;
+    private final OwnershipIndex ownershipIndex;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final Path directory;
+    private final int batchSize;
+
+    public SnapshotService(JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           ItemNameIndex itemNameIndex,
+                           ItemPopularityTracker itemPopularityTracker,
+                           ItemCalendarCache itemCalendarCache,
+                           OwnershipIndex ownershipIndex,
+                           CacheInvalidationBus cacheInvalidationBus,
+                           @Value("${shareit.admin.snapshot.dir:snapshots}") String directory,
+                           @Value("${shareit.admin.snapshot.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.readTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.itemNameIndex = itemNameIndex;
+        this.itemPopularityTracker = itemPopularityTracker;
+        this.itemCalendarCache = itemCalendarCache;
+        this.ownershipIndex = ownershipIndex;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.directory = Path.of(directory);
+        this.batchSize = batchSize;
+    }
+
+    public SnapshotDto dump(String name) {
+        Path file = resolve(name);
+        long started = System.currentTimeMillis();
+        Map<String, Integer> rows = new LinkedHashMap<>();
+        readTransaction.executeWithoutResult(status -> {
+            try {
+                Files.createDirectories(directory);
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                        Files.newOutputStream(file), 1 << 16))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                    out.writeInt(TABLES.size());
+                    for (SnapshotTable table : TABLES) {
+                        rows.put(table.name(), writeTable(out, table));
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        SnapshotDto snapshot = new SnapshotDto(file.toString(), rows, size(file),
+                System.currentTimeMillis() - started);
+        log.info("Снимок {} записан: {} строк, {} байт за {} мс",
+                file, rows, snapshot.bytes(), snapshot.millis());
+        return snapshot;
+    }
+
+    public SnapshotDto restore(String name) {
+        Path file = resolve(name);
+        if (!Files.exists(file)) {
+            throw new NotFoundException("Снимок " + name + " не найден");
+        }
+        long started = System.currentTimeMillis();
+        Map<String, Integer> rows = new LinkedHashMap<>();
+        List<CacheInvalidation> invalidations = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new ValidationException("Снимок больше 2 ГБ не поддерживается");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getInt() != TABLES.size()) {
+                throw new ValidationException("Файл " + name + " не является снимком этой версии");
+            }
+            writeTransaction.executeWithoutResult(status -> {
+                for (SnapshotTable table : TABLES) {
+                    rows.put(table.name(), restoreTable(buffer, table, invalidations));
+                }
+                restartIdentities();
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        // Индексы и статистика обновляются только после фиксации, чтобы неудачное восстановление их не испортило.
+        // Статистика популярности сбрасывается: её id могли принадлежать удалённым вещам и теперь заняты снимком.
+        // Свой узел перестраивается целиком, другие сбрасывают записи по id восстановленных строк
+        itemPopularityTracker.reset();
+        itemNameIndex.load();
+        ownershipIndex.reload();
+        itemCalendarCache.clear();
+        cacheInvalidationBus.publishRemote(invalidations);
+        SnapshotDto snapshot = new SnapshotDto(file.toString(), rows, size(file),
+                System.currentTimeMillis() - started);
+        log.info("Снимок {} восстановлен: {} строк за {} мс", file, rows, snapshot.millis());
+        return snapshot;
+    }
+
+    private int writeTable(DataOutputStream out, SnapshotTable table) throws IOException {
+        int columnCount = table.columns().size();
+        List<List<Object>> columns = new ArrayList<>(columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            columns.add(new ArrayList<>());
+        }
+        jdbcTemplate.query(table.selectSql(), rs -> {
+            for (int i = 0; i < columnCount; i++) {
+                columns.get(i).add(table.types().get(i).read(rs, i + 1));
+            }
+        });
+        int rowCount = columns.get(0).size();
+        out.writeUTF(table.name());
+        out.writeInt(rowCount);
+        out.writeInt(columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            out.writeUTF(table.columns().get(i));
+            out.writeByte(table.types().get(i).ordinal());
+        }
+        for (int i = 0; i < columnCount; i++) {
+            Object[] values = columns.get(i).toArray();
+            columns.set(i, null);
+            out.write(nullMask(values));
+            table.types().get(i).writeValues(out, values);
+        }
+        return rowCount;
+    }
+
+    private int restoreTable(ByteBuffer buffer, SnapshotTable table, List<CacheInvalidation> invalidations) {
+        String name = readUtf(buffer);
+        int rowCount = buffer.getInt();
+        int columnCount = buffer.getInt();
+        if (!name.equals(table.name()) || columnCount != table.columns().size()) {
+            throw new ValidationException("Неожиданная таблица в снимке: " + name);
+        }
+        for (int i = 0; i < columnCount; i++) {
+            String column = readUtf(buffer);
+            int type = buffer.get();
+            if (!column.equals(table.columns().get(i)) || type != table.types().get(i).ordinal()) {
+                throw new ValidationException("Неожиданная колонка в снимке: " + name + "." + column);
+            }
+        }
+        Integer existing = jdbcTemplate.queryForObject("select count(*) from " + name, Integer.class);
+        if (existing != null && existing > 0) {
+            throw new ValidationException("Таблица " + name + " не пуста, восстановление невозможно");
+        }
+        ColumnReader[] columns = new ColumnReader[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            columns[i] = ColumnReader.open(buffer, table.types().get(i), rowCount);
+        }
+        insert(table, columns, rowCount, REGIONS.getOrDefault(name, List.of()), invalidations);
+        return rowCount;
+    }
+
+    // Пакеты привязываются строго по порядку строк: читатели колонок идут по файлу последовательно.
+    // Первая колонка — id, по нему копятся инвалидации для других узлов
+    private void insert(SnapshotTable table, ColumnReader[] columns, int rowCount,
+                        List<CacheRegion> regions, List<CacheInvalidation> invalidations) {
+        String sql = table.insertSql();
+        for (int from = 0; from < rowCount; from += batchSize) {
+            int size = Math.min(batchSize, rowCount - from);
+            jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    for (int column = 0; column < columns.length; column++) {
+                        Object value = columns[column].next();
+                        table.types().get(column).bind(ps, column + 1, value);
+                        if (column == 0) {
+                            regions.forEach(region -> invalidations.add(new CacheInvalidation(region, (Long) value)));
+                        }
+                    }
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return size;
+                }
+            });
+        }
+    }
+
+    // Счётчики идентификаторов сдвигаются за восстановленные строки, иначе следующая вставка получит занятый id
+    private void restartIdentities() {
+        for (String table : List.of("users", "items", "bookings")) {
+            long next = maxId(table) + 1;
+            jdbcTemplate.execute("alter table " + table + " alter column id restart with " + next);
+        }
+        // У комментариев последовательность Hibernate с шагом выделения 50
+        jdbcTemplate.execute("alter sequence comments_seq restart with " + (maxId("comments") + 50));
+    }
+
+    private long maxId(String table) {
+        Long max = jdbcTemplate.queryForObject("select max(id) from " + table, Long.class);
+        return max == null ? 0 : max;
+    }
+
+    private Path resolve(String name) {
+        if (name == null || !SNAPSHOT_NAME.matcher(name).matches()) {
+            throw new ValidationException("Недопустимое имя снимка: " + name);
+        }
+        return directory.resolve(name);
+    }
+
+    private static byte[] nullMask(Object[] values) {
+        byte[] mask = new byte[(values.length + 7) / 8];
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) {
+                mask[i >> 3] |= (byte) (1 << (i & 7));
+            }
+        }
+        return mask;
+    }
+
+    private static String readUtf(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
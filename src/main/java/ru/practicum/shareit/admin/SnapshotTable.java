@@ -0,0 +1,34 @@
+package ru.practicum.shareit.admin;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Таблица снимка и её колонки в порядке записи.
+ */
+record SnapshotTable(String name, List<String> columns, List<ColumnType> types) {
+
+    static SnapshotTable of(String name, Object... columnsAndTypes) {
+        List<String> columns = new ArrayList<>();
+        List<ColumnType> types = new ArrayList<>();
+        for (int i = 0; i < columnsAndTypes.length; i += 2) {
+            columns.add((String) columnsAndTypes[i]);
+            types.add((ColumnType) columnsAndTypes[i + 1]);
+        }
+        return new SnapshotTable(name, List.copyOf(columns), List.copyOf(types));
+    }
+
+    String selectSql() {
+        return "select " + String.join(", ", columns) + " from " + name + " order by id";
+    }
+
+    String insertSql() {
+        return "insert into " + name + " (" + String.join(", ", columns) + ") values ("
+                + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+    }
+
+    int indexOf(String column) {
+        return columns.indexOf(column);
+    }
+}
@@ -0,0 +1,6 @@
+package ru.practicum.shareit.admin.dto;
+
+import java.util.Map;
+
+public record SnapshotDto(String path, Map<String, Integer> rows, long bytes, long millis) {
+}
@@ -8,6 +8,8 @@ import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.booking.dto.BookingAddDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.common.IdempotencyStore;
+import ru.practicum.shareit.common.dto.MultiGetResult;
 
 import java.util.List;
 
@@ -17,11 +19,20 @@ import java.util.List;
 @RequestMapping(path = "/bookings")
 public class BookingController {
     private final BookingService bookingService;
+    private final IdempotencyStore idempotencyStore;
     private static final String REQUEST_HEADER = "X-Sharer-User-Id";
+    private static final String IDEMPOTENCY_HEADER = "Idempotency-Key";
 
     @GetMapping
-    public List<BookingDto> getAllUserBookings(@RequestHeader(name = REQUEST_HEADER) Long userId) {
-        return bookingService.getAllBookingsByUserId(userId);
+    public List<BookingDto> getAllUserBookings(@RequestHeader(name = REQUEST_HEADER) Long userId,
+                                               @RequestParam(defaultValue = "false") boolean history) {
+        return bookingService.getAllBookingsByUserId(userId, history);
+    }
+
+    @GetMapping(params = "ids")
+    public List<MultiGetResult<BookingDto>> getBookingsByIds(@RequestParam List<Long> ids,
+                                                             @RequestHeader(name = REQUEST_HEADER) Long userId) {
+        return bookingService.getBookingsByIds(ids, userId);
     }
 
     @GetMapping("/{bookingId}")
@@ -34,8 +45,10 @@ public class BookingController {
     @PostMapping
     public BookingDto createNewBooking(
             @Valid @RequestBody BookingAddDto bookingDto,
-            @Valid @Positive @RequestHeader(REQUEST_HEADER) Long userId) {
-        return bookingService.createBooking(bookingDto, userId);
+            @Valid @Positive @RequestHeader(REQUEST_HEADER) Long userId,
+            @RequestHeader(name = IDEMPOTENCY_HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute("createBooking", userId, idempotencyKey, bookingDto, BookingDto.class,
+                () -> bookingService.createBooking(bookingDto, userId));
     }
 
     @PatchMapping("/{bookingId}")
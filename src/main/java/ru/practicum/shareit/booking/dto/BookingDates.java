@@ -0,0 +1,6 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.time.LocalDateTime;
+
+public record BookingDates(Long itemId, LocalDateTime lastEnd, LocalDateTime nextStart) {
+}
@@ -0,0 +1,4 @@
+package ru.practicum.shareit.booking.dto;
+
+public record BookingParties(Long itemId, Long bookerId) {
+}
@@ -0,0 +1,10 @@
+package ru.practicum.shareit.booking.dto;
+
+import ru.practicum.shareit.booking.entity.BookingStatus;
+
+import java.time.LocalDateTime;
+
+public record BookingView(Long id, LocalDateTime start, LocalDateTime end, BookingStatus status,
+                          Long itemId, String itemName, String itemDescription, Boolean itemAvailable,
+                          Long itemOwnerId, Long bookerId, String bookerName, String bookerEmail) {
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.booking.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Завершённое бронирование, перенесённое из таблицы bookings архиватором.
+ */
+@Getter
+@Setter
+@ToString
+@Entity
+@Table(name = "bookings_archive",
+        indexes = @Index(name = "idx_bookings_archive_item_booker", columnList = "item_id, booker_id"))
+public class BookingArchive {
+
+    @Id
+    private Long id;
+    @Column(name = "start_date")
+    private LocalDateTime start;
+    @Column(name = "end_date")
+    private LocalDateTime end;
+    @Column(name = "item_id")
+    private Long itemId;
+    @Column(name = "booker_id")
+    private Long bookerId;
+    private BookingStatus status;
+    @Column(name = "archived_at")
+    private LocalDateTime archivedAt;
+
+    public BookingArchive() {
+    }
+}
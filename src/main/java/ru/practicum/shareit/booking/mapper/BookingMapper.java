@@ -3,9 +3,13 @@ package ru.practicum.shareit.booking.mapper;
 import lombok.experimental.UtilityClass;
 import ru.practicum.shareit.booking.dto.BookingAddDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.comment.dto.CommentPreview;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.booking.entity.Booking;
 import ru.practicum.shareit.item.entity.Item;
 import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 
 import java.time.LocalDateTime;
@@ -16,17 +20,35 @@ public class BookingMapper {
     public static final DateTimeFormatter formatter =
             DateTimeFormatter.ISO_DATE_TIME;
 
-    public BookingDto entityItemToDto(Booking booking) {
+    public BookingDto entityItemToDto(Booking booking, CommentPreview itemComments) {
         return BookingDto.builder()
                 .id(booking.getId())
                 .start(booking.getStart().format(formatter))
                 .end(booking.getEnd().format(formatter))
-                .item(ItemMapper.entityItemToDto(booking.getItem()))
+                .item(ItemMapper.entityItemToDto(booking.getItem(), itemComments))
                 .booker(UserMapper.entityUserToDto(booking.getBooker()))
                 .status(booking.getStatus())
                 .build();
     }
 
+    public BookingDto viewToDto(BookingView view, CommentPreview itemComments) {
+        return BookingDto.builder()
+                .id(view.id())
+                .start(view.start().format(formatter))
+                .end(view.end().format(formatter))
+                .item(ItemDto.builder()
+                        .id(view.itemId())
+                        .name(view.itemName())
+                        .description(view.itemDescription())
+                        .available(view.itemAvailable())
+                        .commentCount(itemComments.count())
+                        .comments(itemComments.latest())
+                        .build())
+                .booker(new UserDto(view.bookerId(), view.bookerName(), view.bookerEmail()))
+                .status(view.status())
+                .build();
+    }
+
     public Booking dtoToEntityItem(BookingDto dto, Item item) {
         return Booking.builder()
                 .start(LocalDateTime.parse(dto.getStart()))
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking.outbox;
+
+import ru.practicum.shareit.booking.entity.BookingStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Событие жизненного цикла бронирования. offset монотонно растёт: потребитель, запомнивший
+ * последний обработанный offset, продолжает с него и отбрасывает повторы.
+ */
+public record BookingEvent(long offset, Long bookingId, Long itemId, Long bookerId, BookingStatus status,
+                           LocalDateTime start, LocalDateTime end, LocalDateTime occurredAt) {
+}
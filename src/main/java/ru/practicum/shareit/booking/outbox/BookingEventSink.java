@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking.outbox;
+
+import java.util.List;
+
+/**
+ * Получатель событий из outbox. Доставка «хотя бы один раз»: после сбоя пачка может прийти повторно,
+ * поэтому получатель должен быть идемпотентен по offset.
+ */
+public interface BookingEventSink {
+    String name();
+
+    void publish(List<BookingEvent> events);
+}
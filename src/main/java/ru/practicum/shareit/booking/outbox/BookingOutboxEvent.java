@@ -0,0 +1,58 @@
+package ru.practicum.shareit.booking.outbox;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.CurrentTimestamp;
+import org.hibernate.annotations.SourceType;
+import ru.practicum.shareit.booking.entity.BookingStatus;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@ToString
+@Entity
+@Table(name = "booking_outbox")
+public class BookingOutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "booking_id", nullable = false)
+    private Long bookingId;
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+    @Column(name = "booker_id", nullable = false)
+    private Long bookerId;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BookingStatus status;
+    @Column(name = "start_date", nullable = false)
+    private LocalDateTime start;
+    @Column(name = "end_date", nullable = false)
+    private LocalDateTime end;
+    // Время берётся из БД при вставке: часы узлов могут расходиться
+    @CurrentTimestamp(source = SourceType.DB)
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public BookingOutboxEvent() {
+    }
+
+    public static BookingOutboxEvent of(Long bookingId, Long itemId, Long bookerId, BookingStatus status,
+                                        LocalDateTime start, LocalDateTime end) {
+        BookingOutboxEvent event = new BookingOutboxEvent();
+        event.setBookingId(bookingId);
+        event.setItemId(itemId);
+        event.setBookerId(bookerId);
+        event.setStatus(status);
+        event.setStart(start);
+        event.setEnd(end);
+        return event;
+    }
+
+    public BookingEvent toEvent() {
+        return new BookingEvent(id, bookingId, itemId, bookerId, status, start, end, createdAt);
+    }
+}
@@ -0,0 +1,117 @@
+package ru.practicum.shareit.booking.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Пересылает события из booking_outbox получателю упорядоченными пачками и запоминает
+ * смещение получателя в booking_outbox_offsets в той же транзакции.
+ * Идентификаторы выдаются при вставке, а транзакция с меньшим id может зафиксироваться позже:
+ * на первом пропуске в id пересылка останавливается и ждёт, пока он не заполнится или не истечёт
+ * gap-timeout (обычно это id откаченной транзакции). Время пропуска локальное для узла.
+ */
+@Slf4j
+@Component
+public class BookingOutboxRelay {
+    private final BookingOutboxRepository outboxRepository;
+    private final OutboxOffsetRepository offsetRepository;
+    private final BookingEventSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long gapTimeoutMillis;
+    private final Duration retention;
+    // Первый пропущенный id -> когда пропуск замечен
+    private final Map<Long, Long> gaps = new ConcurrentHashMap<>();
+
+    public BookingOutboxRelay(BookingOutboxRepository outboxRepository,
+                              OutboxOffsetRepository offsetRepository,
+                              BookingEventSink sink,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${shareit.outbox.batch-size:500}") int batchSize,
+                              @Value("${shareit.outbox.gap-timeout-ms:60000}") long gapTimeoutMillis,
+                              @Value("${shareit.outbox.retention-hours:24}") long retentionHours) {
+        this.outboxRepository = outboxRepository;
+        this.offsetRepository = offsetRepository;
+        this.sink = sink;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.gapTimeoutMillis = gapTimeoutMillis;
+        this.retention = Duration.ofHours(retentionHours);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.outbox.relay-ms:1000}")
+    public void relay() {
+        try {
+            int sent;
+            do {
+                sent = relayBatch();
+            } while (sent == batchSize);
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Смещение получателя {} создано другим узлом", sink.name());
+        } catch (PessimisticLockingFailureException e) {
+            log.debug("События получателю {} пересылает другой узел", sink.name());
+        } catch (RuntimeException e) {
+            log.warn("Не удалось переслать события бронирований получателю {}: {}", sink.name(), e.getMessage());
+        }
+    }
+
+    // Из outbox удаляются только события, которые уже получили все получатели
+    @Scheduled(fixedDelayString = "${shareit.outbox.cleanup-ms:600000}")
+    public void cleanup() {
+        Integer deleted = transactionTemplate.execute(status -> offsetRepository.findMinLastId()
+                .map(minId -> outboxRepository.deleteRelayed(minId,
+                        outboxRepository.databaseTime().minus(retention)))
+                .orElse(0));
+        if (deleted != null && deleted > 0) {
+            log.info("Из outbox удалено {} пересланных событий", deleted);
+        }
+    }
+
+    private int relayBatch() {
+        Integer sent = transactionTemplate.execute(status -> {
+            OutboxOffset offset = offsetRepository.findForUpdate(sink.name())
+                    .orElseGet(() -> offsetRepository.saveAndFlush(new OutboxOffset(sink.name(), 0)));
+            List<BookingOutboxEvent> events = untilGap(offset.getLastId(),
+                    outboxRepository.findByIdGreaterThanOrderById(offset.getLastId(), Pageable.ofSize(batchSize)));
+            if (events.isEmpty()) {
+                return 0;
+            }
+            sink.publish(events.stream().map(BookingOutboxEvent::toEvent).toList());
+            offset.setLastId(events.getLast().getId());
+            offset.setUpdatedAt(LocalDateTime.now());
+            gaps.keySet().removeIf(id -> id <= offset.getLastId());
+            return events.size();
+        });
+        return sent == null ? 0 : sent;
+    }
+
+    // Начало пачки до первого пропуска в id, который ещё может заполниться
+    private List<BookingOutboxEvent> untilGap(long lastId, List<BookingOutboxEvent> events) {
+        long now = System.currentTimeMillis();
+        long expected = lastId + 1;
+        for (int i = 0; i < events.size(); i++) {
+            long id = events.get(i).getId();
+            if (id != expected) {
+                long seenAt = gaps.computeIfAbsent(expected, gap -> now);
+                if (now - seenAt < gapTimeoutMillis) {
+                    return events.subList(0, i);
+                }
+                log.warn("Событий outbox с id {}..{} нет дольше {} мс, пропускаем", expected, id - 1, gapTimeoutMillis);
+            }
+            expected = id + 1;
+        }
+        return events;
+    }
+}
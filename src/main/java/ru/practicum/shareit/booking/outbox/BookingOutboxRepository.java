@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.outbox;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface BookingOutboxRepository extends JpaRepository<BookingOutboxEvent, Long> {
+    List<BookingOutboxEvent> findByIdGreaterThanOrderById(Long id, Pageable pageable);
+
+    @Query("select local datetime")
+    LocalDateTime databaseTime();
+
+    @Modifying
+    @Query("delete from BookingOutboxEvent e where e.id <= ?1 and e.createdAt < ?2")
+    int deleteRelayed(Long maxId, LocalDateTime before);
+}
@@ -0,0 +1,65 @@
+package ru.practicum.shareit.booking.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Дописывает события в файл по одному JSON на строку и сбрасывает их на диск до фиксации смещения.
+ * Файл у каждого узла свой, поэтому и смещение своё: "file:" + shareit.outbox.file-node.
+ * Имя узла должно быть уникальным и не меняться между перезапусками, иначе узел начнёт файл заново,
+ * а смещение прежнего имени будет держать очистку outbox.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.outbox.sink", havingValue = "file")
+public class FileBookingEventSink implements BookingEventSink {
+    private final ObjectMapper objectMapper;
+    private final Path file;
+    private final String name;
+
+    public FileBookingEventSink(ObjectMapper objectMapper,
+                                @Value("${shareit.outbox.file:booking-events.jsonl}") String file,
+                                @Value("${shareit.outbox.file-node}") String node) {
+        this.objectMapper = objectMapper;
+        this.file = Path.of(file);
+        this.name = "file:" + node;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public void publish(List<BookingEvent> events) {
+        StringBuilder lines = new StringBuilder();
+        try {
+            for (BookingEvent event : events) {
+                lines.append(objectMapper.writeValueAsString(event)).append('\n');
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать событие бронирования", e);
+        }
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.booking.outbox;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Хранит события в памяти; предназначен для тестов и локального запуска.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.outbox.sink", havingValue = "memory")
+public class InMemoryBookingEventSink implements BookingEventSink {
+    private final List<BookingEvent> events = new ArrayList<>();
+
+    @Override
+    public String name() {
+        return "memory";
+    }
+
+    @Override
+    public synchronized void publish(List<BookingEvent> batch) {
+        for (BookingEvent event : batch) {
+            // Повторно доставленная после сбоя пачка не дублирует уже полученные события
+            if (events.isEmpty() || event.offset() > events.getLast().offset()) {
+                events.add(event);
+            }
+        }
+    }
+
+    public synchronized List<BookingEvent> eventsAfter(long offset) {
+        return events.stream().filter(event -> event.offset() > offset).toList();
+    }
+}
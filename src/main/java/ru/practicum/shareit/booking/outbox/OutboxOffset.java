@@ -0,0 +1,31 @@
+package ru.practicum.shareit.booking.outbox;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@ToString
+@Entity
+@Table(name = "booking_outbox_offsets")
+public class OutboxOffset {
+    @Id
+    private String sink;
+    @Column(name = "last_id", nullable = false)
+    private long lastId;
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public OutboxOffset() {
+    }
+
+    public OutboxOffset(String sink, long lastId) {
+        this.sink = sink;
+        this.lastId = lastId;
+        this.updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking.outbox;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.Optional;
+
+public interface OutboxOffsetRepository extends JpaRepository<OutboxOffset, String> {
+    // Блокировка строки смещения не даёт двум узлам отправлять одну и ту же пачку одновременно.
+    // Нулевой таймаут (NOWAIT): если строку держит другой узел, пачку отправит он, ждать его не нужно
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "0"))
+    @Query("select o from OutboxOffset o where o.sink = ?1")
+    Optional<OutboxOffset> findForUpdate(String sink);
+
+    @Query("select min(o.lastId) from OutboxOffset o")
+    Optional<Long> findMinLastId();
+}
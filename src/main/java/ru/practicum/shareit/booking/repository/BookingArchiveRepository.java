@@ -0,0 +1,34 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.entity.BookingArchive;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface BookingArchiveRepository extends JpaRepository<BookingArchive, Long> {
+    boolean existsByItemIdAndBookerId(Long itemId, Long bookerId);
+
+    @Query("select new ru.practicum.shareit.booking.dto.BookingView(b.id, b.start, b.end, b.status, "
+            + "i.id, i.name, i.description, i.available, i.ownerId, u.id, u.name, u.email) "
+            + "from BookingArchive b join Item i on i.id = b.itemId join User u on u.id = b.bookerId "
+            + "where b.bookerId = ?1")
+    List<BookingView> findViewsByBookerId(Long bookerId);
+
+    @Modifying
+    @Query(value = "insert into bookings_archive (id, start_date, end_date, item_id, booker_id, status, archived_at) "
+            + "select id, start_date, end_date, item_id, booker_id, status, ?2 from bookings where id in ?1",
+            nativeQuery = true)
+    int copyFromBookings(Collection<Long> ids, LocalDateTime archivedAt);
+
+    @Query("select b.id from BookingArchive b where b.itemId = ?1")
+    List<Long> findIdsByItemId(Long itemId, Pageable pageable);
+
+    @Query("select b.id from BookingArchive b where b.bookerId = ?1")
+    List<Long> findIdsByBookerId(Long bookerId, Pageable pageable);
+}
@@ -1,21 +1,69 @@
 package ru.practicum.shareit.booking.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.dto.BookingDates;
+import ru.practicum.shareit.booking.dto.BookingParties;
+import ru.practicum.shareit.booking.dto.BookingPeriod;
+import ru.practicum.shareit.booking.dto.BookingView;
 import ru.practicum.shareit.booking.entity.Booking;
 import ru.practicum.shareit.booking.entity.BookingStatus;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findBookingsByBookerId(Long userId);
+    String VIEW_SELECT = "select new ru.practicum.shareit.booking.dto.BookingView(b.id, b.start, b.end, b.status, "
+            + "i.id, i.name, i.description, i.available, i.ownerId, u.id, u.name, u.email) "
+            + "from Booking b join b.item i join b.booker u ";
 
-    Optional<Booking> findBookingsByItemIdAndBookerId(Long itemId, Long bookerId);
+    boolean existsByItemIdAndBookerId(Long itemId, Long bookerId);
+
+    boolean existsByItemIdAndBookerIdAndEndBefore(Long itemId, Long bookerId, LocalDateTime end);
 
     Optional<Booking> findFirstByItemIdAndStartBeforeAndStatusOrderByEndDesc(
             Long itemId, LocalDateTime now, BookingStatus status);
 
     Optional<Booking> findFirstByItemIdAndStartAfterAndStatusOrderByStartAsc(
             Long itemId, LocalDateTime now, BookingStatus status);
+
+    @Query(VIEW_SELECT + "where u.id = ?1")
+    List<BookingView> findViewsByBookerId(Long bookerId);
+
+    @Query(VIEW_SELECT + "where b.id = ?1")
+    Optional<BookingView> findViewById(Long id);
+
+    @Query("select new ru.practicum.shareit.booking.dto.BookingParties(b.item.id, b.booker.id) "
+            + "from Booking b where b.id = ?1")
+    Optional<BookingParties> findPartiesById(Long id);
+
+    @Modifying
+    @Query("update Booking b set b.status = ?2 where b.id = ?1")
+    int updateStatus(Long id, BookingStatus status);
+
+    @Query(VIEW_SELECT + "where b.id in ?1")
+    List<BookingView> findViewsByIdIn(Collection<Long> ids);
+
+    // Окончание последнего и начало следующего бронирования для всех вещей одним запросом
+    @Query("select new ru.practicum.shareit.booking.dto.BookingDates(b.item.id, "
+            + "max(case when b.start < ?2 then b.end end), min(case when b.start > ?2 then b.start end)) "
+            + "from Booking b where b.item.id in ?1 and b.status = ?3 group by b.item.id")
+    List<BookingDates> findDatesByItemIdIn(Collection<Long> itemIds, LocalDateTime now, BookingStatus status);
+
+    @Query("select b.id from Booking b where b.item.id = ?1")
+    List<Long> findIdsByItemId(Long itemId, Pageable pageable);
+
+    @Query("select b.id from Booking b where b.booker.id = ?1")
+    List<Long> findIdsByBookerId(Long bookerId, Pageable pageable);
+
+    @Query("select new ru.practicum.shareit.booking.dto.BookingPeriod(b.start, b.end) from Booking b "
+            + "where b.item.id = ?1 and b.status = ?2 and b.start < ?4 and b.end > ?3 order by b.start")
+    List<BookingPeriod> findPeriodsOverlapping(Long itemId, BookingStatus status, LocalDateTime from, LocalDateTime to);
+
+    @Query("select b.id from Booking b where b.end < ?1 order by b.end")
+    List<Long> findIdsByEndBefore(LocalDateTime threshold, Pageable pageable);
 }
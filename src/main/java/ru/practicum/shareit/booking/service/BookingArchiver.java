@@ -0,0 +1,102 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.repository.BookingArchiveRepository;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.cache.OwnershipIndex;
+import ru.practicum.shareit.config.SchedulingConfig;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Переносит бронирования, закончившиеся раньше горизонта архивации, в таблицу bookings_archive,
+ * чтобы выборки по bookings работали только с актуальными данными.
+ * Работает на пуле обслуживания: порции разделены паузой, а за один запуск переносится
+ * не больше max-chunks-per-run порций, остаток дожидается следующего запуска.
+ */
+@Slf4j
+@Component
+public class BookingArchiver {
+    private final BookingRepository bookingRepository;
+    private final BookingArchiveRepository bookingArchiveRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final OwnershipIndex ownershipIndex;
+    private final Duration horizon;
+    private final int chunkSize;
+    private final int maxChunksPerRun;
+    private final long pauseMillis;
+
+    public BookingArchiver(BookingRepository bookingRepository,
+                           BookingArchiveRepository bookingArchiveRepository,
+                           TransactionTemplate transactionTemplate,
+                           OwnershipIndex ownershipIndex,
+                           @Value("${shareit.archive.horizon-days:180}") long horizonDays,
+                           @Value("${shareit.archive.chunk-size:1000}") int chunkSize,
+                           @Value("${shareit.archive.max-chunks-per-run:100}") int maxChunksPerRun,
+                           @Value("${shareit.archive.pause-ms:50}") long pauseMillis) {
+        this.bookingRepository = bookingRepository;
+        this.bookingArchiveRepository = bookingArchiveRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.ownershipIndex = ownershipIndex;
+        this.horizon = Duration.ofDays(horizonDays);
+        this.chunkSize = chunkSize;
+        this.maxChunksPerRun = maxChunksPerRun;
+        this.pauseMillis = pauseMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.archive.delay-ms:3600000}",
+            scheduler = SchedulingConfig.MAINTENANCE_SCHEDULER)
+    public void archive() {
+        LocalDateTime threshold = LocalDateTime.now().minus(horizon);
+        long total = 0;
+        int chunks = 0;
+        int moved = 0;
+        try {
+            do {
+                moved = moveChunk(threshold);
+                total += moved;
+                chunks++;
+                if (moved == chunkSize && chunks < maxChunksPerRun) {
+                    throttle();
+                }
+            } while (moved == chunkSize && chunks < maxChunksPerRun);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (total > 0) {
+            log.info("Перенесено в архив {} бронирований, закончившихся до {}", total, threshold);
+        }
+        if (moved == chunkSize && chunks == maxChunksPerRun) {
+            log.info("Достигнут предел {} порций за запуск, остаток будет перенесён при следующем", maxChunksPerRun);
+        }
+    }
+
+    private int moveChunk(LocalDateTime threshold) {
+        List<Long> moved = transactionTemplate.execute(status -> {
+            List<Long> ids = bookingRepository.findIdsByEndBefore(threshold, Pageable.ofSize(chunkSize));
+            if (!ids.isEmpty()) {
+                bookingArchiveRepository.copyFromBookings(ids, LocalDateTime.now());
+                bookingRepository.deleteAllByIdInBatch(ids);
+            }
+            return ids;
+        });
+        if (moved == null) {
+            return 0;
+        }
+        ownershipIndex.removeBookings(moved);
+        return moved.size();
+    }
+
+    private void throttle() throws InterruptedException {
+        if (pauseMillis > 0) {
+            Thread.sleep(pauseMillis);
+        }
+    }
+}
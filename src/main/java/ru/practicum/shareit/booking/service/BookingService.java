@@ -2,14 +2,22 @@ package ru.practicum.shareit.booking.service;
 
 import ru.practicum.shareit.booking.dto.BookingAddDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.common.dto.MultiGetResult;
+import ru.practicum.shareit.limit.Priority;
+import ru.practicum.shareit.limit.ShedPriority;
 
 import java.util.List;
 
 public interface BookingService {
-    List<BookingDto> getAllBookingsByUserId(Long userId);
+    @ShedPriority(Priority.BULK)
+    List<BookingDto> getAllBookingsByUserId(Long userId, boolean includeHistory);
 
+    @ShedPriority(Priority.CRITICAL)
     BookingDto getBookingById(Long bookingId, Long userId);
 
+    @ShedPriority(Priority.BULK)
+    List<MultiGetResult<BookingDto>> getBookingsByIds(List<Long> bookingIds, Long userId);
+
     BookingDto createBooking(BookingAddDto bookingDto, Long userId);
 
     BookingDto updateBooking(Long bookingId, Boolean isApproved, Long userId);
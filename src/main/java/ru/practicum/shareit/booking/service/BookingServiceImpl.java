@@ -2,52 +2,100 @@ package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.dto.BookingAddDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingParties;
+import ru.practicum.shareit.booking.dto.BookingView;
 import ru.practicum.shareit.booking.entity.Booking;
 import ru.practicum.shareit.booking.entity.BookingStatus;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.outbox.BookingOutboxEvent;
+import ru.practicum.shareit.booking.outbox.BookingOutboxRepository;
+import ru.practicum.shareit.booking.repository.BookingArchiveRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.cache.CacheInvalidation;
+import ru.practicum.shareit.cache.CacheRegion;
+import ru.practicum.shareit.cache.OwnershipIndex;
+import ru.practicum.shareit.comment.dto.CommentPreview;
+import ru.practicum.shareit.comment.service.CommentFeed;
+import ru.practicum.shareit.common.dto.MultiGetResult;
 import ru.practicum.shareit.exception.NotAvailableException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.entity.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBooked;
 import ru.practicum.shareit.user.entity.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
     private final BookingRepository bookingRepository;
-    private final UserRepository userRepository;
+    private final BookingArchiveRepository bookingArchiveRepository;
     private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final CommentFeed commentFeed;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OwnershipIndex ownershipIndex;
+    private final BookingOutboxRepository bookingOutboxRepository;
 
     @Override
-    public List<BookingDto> getAllBookingsByUserId(Long userId) {
-        return bookingRepository.findBookingsByBookerId(userId).stream()
-                .map(BookingMapper::entityItemToDto)
-                .toList();
+    @Transactional(readOnly = true)
+    public List<BookingDto> getAllBookingsByUserId(Long userId, boolean includeHistory) {
+        List<BookingView> bookings = bookingRepository.findViewsByBookerId(userId);
+        if (includeHistory) {
+            bookings = new ArrayList<>(bookings);
+            bookings.addAll(bookingArchiveRepository.findViewsByBookerId(userId));
+        }
+        return toDtos(bookings);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public BookingDto getBookingById(Long bookingId, Long userId) {
-        Booking booking = bookingRepository.findById(bookingId).orElseThrow(
+        BookingParties parties = ownershipIndex.bookingParties(bookingId).orElseThrow(
                 () -> new NotFoundException(String.format("Бронирование с ID = %d, не найдено!", bookingId)));
-        if (userId.equals(booking.getBooker().getId()) || userId.equals(booking.getItem().getOwnerId())) {
-            return BookingMapper.entityItemToDto(booking);
+        if (userId.equals(parties.bookerId()) || isItemOwner(parties.itemId(), userId)) {
+            BookingView booking = bookingRepository.findViewById(bookingId).orElseThrow(
+                    () -> new NotFoundException(String.format("Бронирование с ID = %d, не найдено!", bookingId)));
+            return toDtos(List.of(booking)).getFirst();
         } else {
             throw new NotAvailableException(
                     "Информация о конкретном бронировании доступна только заявителю или владельцу вещи");
         }
     }
 
+    // Чужие бронирования отмечаются как ненайденные, чтобы не раскрывать их существование
+    @Override
+    @Transactional(readOnly = true)
+    public List<MultiGetResult<BookingDto>> getBookingsByIds(List<Long> bookingIds, Long userId) {
+        MultiGetResult.checkIds(bookingIds);
+        if (bookingIds.isEmpty()) return List.of();
+        List<BookingView> bookings = bookingRepository.findViewsByIdIn(Set.copyOf(bookingIds)).stream()
+                .filter(booking -> userId.equals(booking.bookerId()) || userId.equals(booking.itemOwnerId()))
+                .toList();
+        Map<Long, BookingDto> found = toDtos(bookings).stream()
+                .collect(Collectors.toMap(BookingDto::getId, Function.identity()));
+        return MultiGetResult.inOrder(bookingIds, found);
+    }
+
     @Override
+    @Transactional
     public BookingDto createBooking(BookingAddDto bookingDto, Long userId) {
         // TODO: Дописать логику, где бизнес-ошибка с start, end.
+        // Существование проверяется в БД внутри транзакции записи, а не по индексу
         if (userRepository.existsById(userId)) {
             Item item = itemRepository.findById(bookingDto.getItemId()).orElseThrow(
                     () -> new NotFoundException(String.format("Предмет с ID = %d, не найден!", bookingDto.getItemId())));
@@ -58,8 +106,21 @@ public class BookingServiceImpl implements BookingService {
                 booking.setBooker(booker);
                 booking.setItem(item);
                 booking.setStatus(BookingStatus.WAITING);
-                var result = BookingMapper.entityItemToDto(bookingRepository.save(booking));
-                log.info("Бронирование создано! {}", result);
+                Booking saved = bookingRepository.save(booking);
+                bookingOutboxRepository.save(BookingOutboxEvent.of(saved.getId(), item.getId(), userId,
+                        saved.getStatus(), saved.getStart(), saved.getEnd()));
+                var result = BookingMapper.entityItemToDto(saved, commentFeed.preview(item.getId()));
+                eventPublisher.publishEvent(new ItemBooked(item.getId()));
+                eventPublisher.publishEvent(new CacheInvalidation(CacheRegion.BOOKING, result.getId()));
+                eventPublisher.publishEvent(new CacheInvalidation(CacheRegion.ITEM_BOOKINGS, item.getId()));
+                log.atInfo().setMessage("Бронирование создано, ID = {}")
+                        .addArgument(result.getId())
+                        .addKeyValue("bookingId", result.getId())
+                        .addKeyValue("itemId", item.getId())
+                        .addKeyValue("bookerId", userId)
+                        .log();
+                // toString всего DTO строится, только если DEBUG включён
+                log.atDebug().setMessage("Создано бронирование {}").addArgument(() -> result).log();
                 return result;
             } else {
                 throw new NotAvailableException("Предмет недоступен для бронирования!");
@@ -70,16 +131,23 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
+    @Transactional
     public BookingDto updateBooking(Long bookingId, Boolean isApproved, Long userId) {
-        Booking booking = bookingRepository.findById(bookingId)
+        BookingParties parties = ownershipIndex.bookingParties(bookingId)
                 .orElseThrow(() -> new NotFoundException(String.format("Бронирование с ID = %d, не найдено!", bookingId)));
-        if (booking.getItem().getOwnerId().equals(userId)) {
+        if (isItemOwner(parties.itemId(), userId)) {
+            bookingRepository.updateStatus(bookingId, isApproved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
             if (isApproved) {
-                booking.setStatus(BookingStatus.APPROVED);
-            } else {
-                booking.setStatus(BookingStatus.REJECTED);
+                eventPublisher.publishEvent(new ItemBooked(parties.itemId()));
             }
-            return BookingMapper.entityItemToDto(bookingRepository.save(booking));
+            BookingView booking = bookingRepository.findViewById(bookingId).orElseThrow(
+                    () -> new NotFoundException(String.format("Бронирование с ID = %d, не найдено!", bookingId)));
+            bookingOutboxRepository.save(BookingOutboxEvent.of(booking.id(), booking.itemId(), booking.bookerId(),
+                    booking.status(), booking.start(), booking.end()));
+            BookingDto result = toDtos(List.of(booking)).getFirst();
+            eventPublisher.publishEvent(new CacheInvalidation(CacheRegion.BOOKING, bookingId));
+            eventPublisher.publishEvent(new CacheInvalidation(CacheRegion.ITEM_BOOKINGS, parties.itemId()));
+            return result;
         } else {
             throw new NotAvailableException(
                     String.format("У ID = %d доступа к подтверждению данного бронирования!", userId));
@@ -88,6 +156,25 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     public void deleteBooking(Long bookingId) {
-        bookingRepository.deleteById(bookingId);
+        bookingRepository.findById(bookingId).ifPresent(booking -> {
+            bookingRepository.delete(booking);
+            eventPublisher.publishEvent(new CacheInvalidation(CacheRegion.BOOKING, bookingId));
+            eventPublisher.publishEvent(new CacheInvalidation(CacheRegion.ITEM_BOOKINGS, booking.getItem().getId()));
+        });
+    }
+
+    private boolean isItemOwner(long itemId, long userId) {
+        OptionalLong ownerId = ownershipIndex.itemOwner(itemId);
+        return ownerId.isPresent() && ownerId.getAsLong() == userId;
+    }
+
+    private List<BookingDto> toDtos(List<BookingView> bookings) {
+        if (bookings.isEmpty()) return List.of();
+        Map<Long, CommentPreview> comments = commentFeed.previews(
+                bookings.stream().map(BookingView::itemId).distinct().toList());
+        return bookings.stream()
+                .map(booking -> BookingMapper.viewToDto(booking,
+                        comments.getOrDefault(booking.itemId(), CommentPreview.EMPTY)))
+                .toList();
     }
 }
\ No newline at end of file
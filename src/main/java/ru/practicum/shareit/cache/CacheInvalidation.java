@@ -0,0 +1,8 @@
+package ru.practicum.shareit.cache;
+
+/**
+ * Сообщение об изменении сущности. Публикуется сервисами как событие приложения
+ * и после коммита рассылается всем узлам через {@link CacheInvalidationBus}.
+ */
+public record CacheInvalidation(CacheRegion region, long id) {
+}
@@ -0,0 +1,77 @@
+package ru.practicum.shareit.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Шина инвалидации локальных кэшей. Изменения применяются на своём узле сразу после коммита,
+ * а другим узлам отправляются пачкой раз в окно shareit.cache.bus.coalesce-ms, повторы в окне схлопываются.
+ */
+@Slf4j
+@Component
+public class CacheInvalidationBus {
+    private final String nodeId;
+    private final InvalidationTransport transport;
+    private final List<CacheInvalidationListener> listeners;
+    private final Set<CacheInvalidation> outgoing = ConcurrentHashMap.newKeySet();
+
+    public CacheInvalidationBus(@Value("${shareit.cache.bus.node-id:${random.uuid}}") String nodeId,
+                                InvalidationTransport transport,
+                                List<CacheInvalidationListener> listeners) {
+        this.nodeId = nodeId;
+        this.transport = transport;
+        this.listeners = listeners;
+        transport.subscribe(nodeId, this::applyRemote);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(CacheInvalidation invalidation) {
+        apply(List.of(invalidation));
+        outgoing.add(invalidation);
+    }
+
+    // Только для других узлов: свой узел перестраивает кэши целиком, например после восстановления снимка
+    public void publishRemote(Collection<CacheInvalidation> invalidations) {
+        outgoing.addAll(invalidations);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.cache.bus.coalesce-ms:50}")
+    public void flush() {
+        if (outgoing.isEmpty()) {
+            return;
+        }
+        List<CacheInvalidation> batch = List.copyOf(outgoing);
+        outgoing.removeAll(batch);
+        transport.publish(nodeId, batch);
+    }
+
+    // Пачку с другого узла транспорт доставит повторно, если хоть один слушатель не справился
+    private void applyRemote(Collection<CacheInvalidation> invalidations) {
+        if (!apply(invalidations)) {
+            throw new IllegalStateException("Инвалидации применены не всеми слушателями, пачка будет перечитана");
+        }
+    }
+
+    private boolean apply(Collection<CacheInvalidation> invalidations) {
+        boolean applied = true;
+        for (CacheInvalidation invalidation : invalidations) {
+            for (CacheInvalidationListener listener : listeners) {
+                try {
+                    listener.invalidate(invalidation);
+                } catch (RuntimeException e) {
+                    log.warn("Ошибка инвалидации {}: {}", invalidation, e.getMessage());
+                    applied = false;
+                }
+            }
+        }
+        return applied;
+    }
+}
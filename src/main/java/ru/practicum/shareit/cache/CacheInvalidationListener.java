@@ -0,0 +1,5 @@
+package ru.practicum.shareit.cache;
+
+public interface CacheInvalidationListener {
+    void invalidate(CacheInvalidation invalidation);
+}
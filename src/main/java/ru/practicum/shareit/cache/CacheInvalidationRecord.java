@@ -0,0 +1,31 @@
+package ru.practicum.shareit.cache;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@ToString
+@Entity
+@Table(name = "cache_invalidations")
+public class CacheInvalidationRecord {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "node_id", nullable = false)
+    private String nodeId;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CacheRegion region;
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public CacheInvalidationRecord() {
+    }
+}
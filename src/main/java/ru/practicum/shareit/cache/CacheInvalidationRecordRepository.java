@@ -0,0 +1,25 @@
+package ru.practicum.shareit.cache;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface CacheInvalidationRecordRepository extends JpaRepository<CacheInvalidationRecord, Long> {
+    List<CacheInvalidationRecord> findByIdGreaterThanOrderById(Long id, Pageable pageable);
+
+    List<CacheInvalidationRecord> findByIdInOrderById(Collection<Long> ids);
+
+    @Query("select coalesce(max(r.id), 0) from CacheInvalidationRecord r where r.createdAt < ?1")
+    long findMaxIdCreatedBefore(LocalDateTime threshold);
+
+    @Modifying
+    @Transactional
+    @Query("delete from CacheInvalidationRecord r where r.createdAt < ?1")
+    int deleteCreatedBefore(LocalDateTime threshold);
+}
@@ -0,0 +1,8 @@
+package ru.practicum.shareit.cache;
+
+public enum CacheRegion {
+    ITEM,
+    USER,
+    BOOKING,
+    ITEM_BOOKINGS
+}
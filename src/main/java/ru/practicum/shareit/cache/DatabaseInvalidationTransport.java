@@ -0,0 +1,129 @@
+package ru.practicum.shareit.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Транспорт через общую таблицу cache_invalidations: узлы пишут пачки сообщений
+ * и периодически дочитывают чужие записи после последнего прочитанного id.
+ * id выдаются до коммита, поэтому запись с меньшим id может стать видна позже записи с большим:
+ * пропущенные id запоминаются и перечитываются, пока не появятся или не истечёт gap-timeout.
+ * Курсор сдвигается только после того, как все подписчики применили пачку.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.cache.bus.transport", havingValue = "database", matchIfMissing = true)
+public class DatabaseInvalidationTransport implements InvalidationTransport {
+    private static final int MAX_GAPS = 10_000;
+
+    private final CacheInvalidationRecordRepository repository;
+    private final int batchSize;
+    private final Duration retention;
+    private final long gapTimeoutMillis;
+    private final Map<String, Consumer<Collection<CacheInvalidation>>> subscribers = new ConcurrentHashMap<>();
+    // Пропущенный id -> когда пропуск замечен; время локальное, сравнивается только с часами этого узла
+    private final Map<Long, Long> gaps = new HashMap<>();
+    private long lastSeenId = -1;
+
+    public DatabaseInvalidationTransport(CacheInvalidationRecordRepository repository,
+                                         @Value("${shareit.cache.bus.poll-batch-size:1000}") int batchSize,
+                                         @Value("${shareit.cache.bus.retention-minutes:10}") long retentionMinutes,
+                                         @Value("${shareit.cache.bus.gap-timeout-ms:60000}") long gapTimeoutMillis) {
+        this.repository = repository;
+        this.batchSize = batchSize;
+        this.retention = Duration.ofMinutes(retentionMinutes);
+        this.gapTimeoutMillis = gapTimeoutMillis;
+    }
+
+    @Override
+    public void publish(String nodeId, Collection<CacheInvalidation> invalidations) {
+        LocalDateTime now = LocalDateTime.now();
+        repository.saveAll(invalidations.stream().map(invalidation -> {
+            CacheInvalidationRecord record = new CacheInvalidationRecord();
+            record.setNodeId(nodeId);
+            record.setRegion(invalidation.region());
+            record.setEntityId(invalidation.id());
+            record.setCreatedAt(now);
+            return record;
+        }).toList());
+    }
+
+    @Override
+    public void subscribe(String nodeId, Consumer<Collection<CacheInvalidation>> consumer) {
+        subscribers.put(nodeId, consumer);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.cache.bus.poll-ms:200}")
+    public synchronized void poll() {
+        long now = System.currentTimeMillis();
+        if (lastSeenId < 0) {
+            // Новый узел начинает с запаса в gap-timeout: повтор инвалидации безвреден,
+            // а записи ещё не закоммиченных к старту транзакций не будут пропущены
+            lastSeenId = repository.findMaxIdCreatedBefore(
+                    LocalDateTime.now().minus(Duration.ofMillis(gapTimeoutMillis)));
+        }
+        recheckGaps(now);
+        List<CacheInvalidationRecord> records;
+        do {
+            records = repository.findByIdGreaterThanOrderById(lastSeenId, Pageable.ofSize(batchSize));
+            if (records.isEmpty()) {
+                return;
+            }
+            deliver(records);
+            long expected = lastSeenId + 1;
+            for (CacheInvalidationRecord record : records) {
+                for (long id = expected; id < record.getId() && gaps.size() < MAX_GAPS; id++) {
+                    gaps.putIfAbsent(id, now);
+                }
+                expected = record.getId() + 1;
+            }
+            lastSeenId = records.getLast().getId();
+        } while (records.size() == batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.cache.bus.cleanup-ms:60000}")
+    public void cleanup() {
+        int deleted = repository.deleteCreatedBefore(LocalDateTime.now().minus(retention));
+        if (deleted > 0) {
+            log.debug("Удалено {} устаревших сообщений шины инвалидации", deleted);
+        }
+    }
+
+    private void recheckGaps(long now) {
+        if (gaps.isEmpty()) {
+            return;
+        }
+        List<CacheInvalidationRecord> late = repository.findByIdInOrderById(gaps.keySet());
+        if (!late.isEmpty()) {
+            deliver(late);
+            late.forEach(record -> gaps.remove(record.getId()));
+        }
+        // Чаще всего это id откаченных транзакций, которые так и не появятся
+        int before = gaps.size();
+        gaps.values().removeIf(seenAt -> now - seenAt > gapTimeoutMillis);
+        if (gaps.size() < before) {
+            log.debug("Перестали ждать {} пропущенных id шины инвалидации", before - gaps.size());
+        }
+    }
+
+    // Исключение подписчика прерывает опрос до сдвига курсора, и пачка будет прочитана снова
+    private void deliver(List<CacheInvalidationRecord> records) {
+        subscribers.forEach((nodeId, consumer) -> consumer.accept(records.stream()
+                .filter(record -> !record.getNodeId().equals(nodeId))
+                .map(record -> new CacheInvalidation(record.getRegion(), record.getEntityId()))
+                .toList()));
+    }
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.cache;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Транспорт шины инвалидации между узлами. Узел получает только чужие сообщения.
+ */
+public interface InvalidationTransport {
+    void publish(String nodeId, Collection<CacheInvalidation> invalidations);
+
+    void subscribe(String nodeId, Consumer<Collection<CacheInvalidation>> consumer);
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Транспорт внутри одной JVM: несколько экземпляров {@link CacheInvalidationBus} с общим транспортом
+ * ведут себя как отдельные узлы.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.cache.bus.transport", havingValue = "loopback")
+public class LoopbackInvalidationTransport implements InvalidationTransport {
+    private final Map<String, Consumer<Collection<CacheInvalidation>>> subscribers = new ConcurrentHashMap<>();
+
+    @Override
+    public void publish(String nodeId, Collection<CacheInvalidation> invalidations) {
+        subscribers.forEach((subscriberId, consumer) -> {
+            if (!subscriberId.equals(nodeId)) {
+                consumer.accept(invalidations);
+            }
+        });
+    }
+
+    @Override
+    public void subscribe(String nodeId, Consumer<Collection<CacheInvalidation>> consumer) {
+        subscribers.put(nodeId, consumer);
+    }
+}
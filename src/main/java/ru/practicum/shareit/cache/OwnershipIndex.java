@@ -0,0 +1,201 @@
+package ru.practicum.shareit.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.BookingParties;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.common.collection.LongLongHashMap;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Индекс для проверок прав без запросов к БД: владелец каждой вещи, вещь и автор каждого бронирования.
+ * Хранится в примитивных хэш-таблицах, загружается при старте и обновляется через шину инвалидации
+ * после коммита. При промахе данные берутся из БД и запоминаются.
+ * Каждая инвалидация увеличивает epoch: ответ БД, прочитанный до инвалидации, не кэшируется,
+ * а при гонке двух инвалидаций запись просто удаляется, и следующее чтение идёт в БД.
+ * Существование пользователя индекс не проверяет: пути создания проверяют его в БД внутри транзакции.
+ */
+@Slf4j
+@Component
+public class OwnershipIndex implements CacheInvalidationListener {
+    private static final long MISSING = 0;
+    private static final int INITIAL_SIZE = 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongLongHashMap itemOwners = new LongLongHashMap(INITIAL_SIZE);
+    private final LongLongHashMap bookingItems = new LongLongHashMap(INITIAL_SIZE);
+    private final LongLongHashMap bookingBookers = new LongLongHashMap(INITIAL_SIZE);
+    // Изменяются только под блокировкой записи
+    private long epoch;
+    private boolean loading;
+    private final List<CacheInvalidation> invalidatedDuringLoad = new ArrayList<>();
+
+    public OwnershipIndex(JdbcTemplate jdbcTemplate,
+                          ItemRepository itemRepository,
+                          BookingRepository bookingRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.itemRepository = itemRepository;
+        this.bookingRepository = bookingRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        write(() -> loading = true);
+        jdbcTemplate.query("select id, owner_id from items where deleted = false", rs -> {
+            long itemId = rs.getLong(1);
+            long ownerId = rs.getLong(2);
+            write(() -> itemOwners.put(itemId, ownerId));
+        });
+        jdbcTemplate.query("select id, item_id, booker_id from bookings", rs -> {
+            long bookingId = rs.getLong(1);
+            long itemId = rs.getLong(2);
+            long bookerId = rs.getLong(3);
+            write(() -> putBooking(bookingId, itemId, bookerId));
+        });
+        // Строка, прочитанная до инвалидации, могла перезаписать её результат: такие id перечитываются
+        List<CacheInvalidation> replay = new ArrayList<>();
+        write(() -> {
+            loading = false;
+            replay.addAll(invalidatedDuringLoad);
+            invalidatedDuringLoad.clear();
+        });
+        replay.forEach(this::invalidate);
+        log.info("Индекс прав загружен: {} вещей, {} бронирований", itemOwners.size(), bookingItems.size());
+    }
+
+    // Полная перезагрузка после восстановления снимка; ответы БД, прочитанные до неё, не кэшируются
+    public void reload() {
+        write(() -> {
+            epoch++;
+            itemOwners.clear();
+            bookingItems.clear();
+            bookingBookers.clear();
+        });
+        load();
+    }
+
+    @Override
+    public void invalidate(CacheInvalidation invalidation) {
+        long id = invalidation.id();
+        switch (invalidation.region()) {
+            case ITEM -> {
+                long started = startInvalidation(invalidation);
+                Optional<Long> ownerId = itemRepository.findOwnerIdById(id);
+                write(() -> {
+                    if (started == epoch && ownerId.isPresent()) {
+                        itemOwners.put(id, ownerId.get());
+                    } else {
+                        itemOwners.remove(id);
+                    }
+                });
+            }
+            case BOOKING -> {
+                long started = startInvalidation(invalidation);
+                Optional<BookingParties> parties = bookingRepository.findPartiesById(id);
+                write(() -> {
+                    if (started == epoch && parties.isPresent()) {
+                        putBooking(id, parties.get().itemId(), parties.get().bookerId());
+                    } else {
+                        removeBooking(id);
+                    }
+                });
+            }
+            default -> {
+            }
+        }
+    }
+
+    public OptionalLong itemOwner(long itemId) {
+        long started;
+        lock.readLock().lock();
+        try {
+            long ownerId = itemOwners.get(itemId, MISSING);
+            if (ownerId != MISSING) {
+                return OptionalLong.of(ownerId);
+            }
+            started = epoch;
+        } finally {
+            lock.readLock().unlock();
+        }
+        Optional<Long> loaded = itemRepository.findOwnerIdById(itemId);
+        loaded.ifPresent(owner -> write(() -> {
+            if (started == epoch) {
+                itemOwners.put(itemId, owner);
+            }
+        }));
+        return loaded.map(OptionalLong::of).orElse(OptionalLong.empty());
+    }
+
+    public Optional<BookingParties> bookingParties(long bookingId) {
+        long started;
+        lock.readLock().lock();
+        try {
+            long itemId = bookingItems.get(bookingId, MISSING);
+            if (itemId != MISSING) {
+                return Optional.of(new BookingParties(itemId, bookingBookers.get(bookingId, MISSING)));
+            }
+            started = epoch;
+        } finally {
+            lock.readLock().unlock();
+        }
+        Optional<BookingParties> loaded = bookingRepository.findPartiesById(bookingId);
+        loaded.ifPresent(booking -> write(() -> {
+            if (started == epoch) {
+                putBooking(bookingId, booking.itemId(), booking.bookerId());
+            }
+        }));
+        return loaded;
+    }
+
+    // Бронирования, перенесённые в архив или удалённые, убираются только на своём узле;
+    // на остальных устаревшая запись безвредна и отсеивается при следующем чтении бронирования
+    public void removeBookings(Collection<Long> bookingIds) {
+        write(() -> bookingIds.forEach(this::removeBooking));
+    }
+
+    private long startInvalidation(CacheInvalidation invalidation) {
+        lock.writeLock().lock();
+        try {
+            if (loading) {
+                invalidatedDuringLoad.add(invalidation);
+            }
+            return ++epoch;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void putBooking(long bookingId, long itemId, long bookerId) {
+        bookingItems.put(bookingId, itemId);
+        bookingBookers.put(bookingId, bookerId);
+    }
+
+    private void removeBooking(long bookingId) {
+        bookingItems.remove(bookingId);
+        bookingBookers.remove(bookingId);
+    }
+
+    private void write(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
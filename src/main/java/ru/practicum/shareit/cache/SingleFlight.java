@@ -0,0 +1,71 @@
+package ru.practicum.shareit.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Объединение одновременных загрузок: пока загрузка по ключу выполняется, остальные вызовы с тем же
+ * ключом ждут её и получают тот же результат или то же исключение. Результат не кэшируется —
+ * следующий вызов после завершения загрузки выполнит её заново.
+ */
+@Component
+public class SingleFlight {
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> loads = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> coalesced = new ConcurrentHashMap<>();
+
+    public SingleFlight(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T load(String name, Object key, Supplier<T> loader) {
+        Key flightKey = new Key(name, key);
+        CompletableFuture<Object> own = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(flightKey, own);
+        if (running != null) {
+            counter(coalesced, "shareit.singleflight.coalesced", name).increment();
+            return (T) await(running);
+        }
+        counter(loads, "shareit.singleflight.loads", name).increment();
+        try {
+            T value = loader.get();
+            own.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, own);
+        }
+    }
+
+    private Counter counter(ConcurrentMap<String, Counter> counters, String metric, String name) {
+        return counters.computeIfAbsent(name, n -> meterRegistry.counter(metric, "name", n));
+    }
+
+    private static Object await(CompletableFuture<Object> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Key(String name, Object key) {
+    }
+}
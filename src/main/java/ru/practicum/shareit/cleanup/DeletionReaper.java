@@ -0,0 +1,180 @@
+package ru.practicum.shareit.cleanup;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.repository.BookingArchiveRepository;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.cache.CacheInvalidation;
+import ru.practicum.shareit.cache.CacheRegion;
+import ru.practicum.shareit.comment.repository.CommentRepository;
+import ru.practicum.shareit.config.SchedulingConfig;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.ItemStatsRepository;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Физически удаляет помеченных на удаление пользователей и вещи вместе с зависимыми
+ * бронированиями и комментариями. Работает порциями по chunk-size строк, каждая порция
+ * в отдельной транзакции, с паузой между порциями. Из-за пауз работает на пуле обслуживания,
+ * а не на общем планировщике.
+ */
+@Slf4j
+@Component
+public class DeletionReaper {
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingArchiveRepository bookingArchiveRepository;
+    private final CommentRepository commentRepository;
+    private final ItemStatsRepository itemStatsRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+    private final long pauseMillis;
+
+    private final Counter deletedUsers;
+    private final Counter deletedItems;
+    private final Counter deletedBookings;
+    private final Counter deletedComments;
+    private final AtomicLong pendingUsers = new AtomicLong();
+    private final AtomicLong pendingItems = new AtomicLong();
+
+    public DeletionReaper(UserRepository userRepository,
+                          ItemRepository itemRepository,
+                          BookingRepository bookingRepository,
+                          BookingArchiveRepository bookingArchiveRepository,
+                          CommentRepository commentRepository,
+                          ItemStatsRepository itemStatsRepository,
+                          TransactionTemplate transactionTemplate,
+                          ApplicationEventPublisher eventPublisher,
+                          MeterRegistry meterRegistry,
+                          @Value("${shareit.reaper.chunk-size:500}") int chunkSize,
+                          @Value("${shareit.reaper.pause-ms:50}") long pauseMillis) {
+        this.userRepository = userRepository;
+        this.itemRepository = itemRepository;
+        this.bookingRepository = bookingRepository;
+        this.bookingArchiveRepository = bookingArchiveRepository;
+        this.commentRepository = commentRepository;
+        this.itemStatsRepository = itemStatsRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.pauseMillis = pauseMillis;
+        this.deletedUsers = meterRegistry.counter("shareit.reaper.deleted", "entity", "user");
+        this.deletedItems = meterRegistry.counter("shareit.reaper.deleted", "entity", "item");
+        this.deletedBookings = meterRegistry.counter("shareit.reaper.deleted", "entity", "booking");
+        this.deletedComments = meterRegistry.counter("shareit.reaper.deleted", "entity", "comment");
+        meterRegistry.gauge("shareit.reaper.pending", Tags.of("entity", "user"), pendingUsers);
+        meterRegistry.gauge("shareit.reaper.pending", Tags.of("entity", "item"), pendingItems);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.reaper.delay-ms:5000}", scheduler = SchedulingConfig.MAINTENANCE_SCHEDULER)
+    public void reap() {
+        try {
+            pendingUsers.set(userRepository.countDeleted());
+            List<Long> users = userRepository.findDeletedIds(chunkSize);
+            for (Long userId : users) {
+                reapUser(userId);
+            }
+            pendingItems.set(itemRepository.countDeleted());
+            List<Long> items = itemRepository.findDeletedIds(chunkSize);
+            for (Long itemId : items) {
+                reapItem(itemId);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void reapUser(Long userId) throws InterruptedException {
+        while (inTransaction(() -> {
+            List<Long> ids = itemRepository.findIdsByOwnerId(userId, Pageable.ofSize(chunkSize));
+            if (!ids.isEmpty()) {
+                itemRepository.markDeleted(ids);
+                ids.forEach(id -> eventPublisher.publishEvent(new CacheInvalidation(CacheRegion.ITEM, id)));
+            }
+            return ids.size();
+        }) > 0) {
+            throttle();
+        }
+        purge(pageable -> bookingRepository.findIdsByBookerId(userId, pageable), bookingRepository, deletedBookings);
+        purge(pageable -> bookingArchiveRepository.findIdsByBookerId(userId, pageable), bookingArchiveRepository,
+                deletedBookings);
+        // Счётчики комментариев уменьшены ещё при мягком удалении пользователя
+        purge(pageable -> commentRepository.findIdsByUserId(userId, pageable), commentRepository, deletedComments);
+        // Вещи пользователя уже помечены удалёнными и будут вычищены в reapItem,
+        // сам пользователь удаляется только после них, чтобы не упереться в каскад.
+        if (!itemRepository.existsAnyByOwnerId(userId)
+                && inTransaction(() -> userRepository.purgeDeleted(userId)) > 0) {
+            deletedUsers.increment();
+            log.info("Пользователь с ID = {} окончательно удалён", userId);
+        }
+    }
+
+    private void reapItem(Long itemId) throws InterruptedException {
+        purge(pageable -> commentRepository.findIdsByItemId(itemId, pageable), commentRepository, deletedComments);
+        purge(pageable -> bookingRepository.findIdsByItemId(itemId, pageable), bookingRepository, deletedBookings);
+        purge(pageable -> bookingArchiveRepository.findIdsByItemId(itemId, pageable), bookingArchiveRepository,
+                deletedBookings);
+        // Статистика популярности удаляется вместе с вещью, чтобы не занимать место среди кандидатов в топ
+        if (inTransaction(() -> {
+            int purged = itemRepository.purgeDeleted(itemId);
+            if (purged > 0) {
+                itemStatsRepository.deleteByItemId(itemId);
+            }
+            return purged;
+        }) > 0) {
+            deletedItems.increment();
+            log.info("Вещь с ID = {} окончательно удалена", itemId);
+        }
+    }
+
+    private void purge(Function<Pageable, List<Long>> chunk, JpaRepository<?, Long> repository, Counter counter)
+            throws InterruptedException {
+        purge(chunk, ids -> {
+        }, repository, counter);
+    }
+
+    private void purge(Function<Pageable, List<Long>> chunk, Consumer<List<Long>> beforeDelete,
+                       JpaRepository<?, Long> repository, Counter counter) throws InterruptedException {
+        int deleted;
+        do {
+            deleted = inTransaction(() -> {
+                List<Long> ids = chunk.apply(Pageable.ofSize(chunkSize));
+                if (!ids.isEmpty()) {
+                    beforeDelete.accept(ids);
+                    repository.deleteAllByIdInBatch(ids);
+                }
+                return ids.size();
+            });
+            counter.increment(deleted);
+            throttle();
+        } while (deleted == chunkSize);
+    }
+
+    private int inTransaction(Supplier<Integer> action) {
+        Integer result = transactionTemplate.execute(status -> action.get());
+        return result == null ? 0 : result;
+    }
+
+    private void throttle() throws InterruptedException {
+        if (pauseMillis > 0) {
+            Thread.sleep(pauseMillis);
+        }
+    }
+}
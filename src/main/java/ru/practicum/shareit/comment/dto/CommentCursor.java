@@ -0,0 +1,36 @@
+package ru.practicum.shareit.comment.dto;
+
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Позиция в ленте комментариев: время и ID последнего выданного комментария.
+ * Клиенту передаётся непрозрачной строкой.
+ */
+public record CommentCursor(LocalDateTime created, Long id) {
+    private static final char SEPARATOR = '|';
+
+    public static CommentCursor after(CommentView last) {
+        return new CommentCursor(last.created(), last.id());
+    }
+
+    public static CommentCursor decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+            return new CommentCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new ValidationException("Некорректный курсор ленты комментариев");
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((created.toString() + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
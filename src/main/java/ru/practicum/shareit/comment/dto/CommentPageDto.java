@@ -0,0 +1,6 @@
+package ru.practicum.shareit.comment.dto;
+
+import java.util.List;
+
+public record CommentPageDto(List<CommentDto> comments, String nextCursor) {
+}
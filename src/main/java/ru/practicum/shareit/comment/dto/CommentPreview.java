@@ -0,0 +1,10 @@
+package ru.practicum.shareit.comment.dto;
+
+import java.util.List;
+
+/**
+ * Сводка комментариев вещи для выдачи вместе с ней: общее число и несколько последних.
+ */
+public record CommentPreview(long count, List<CommentDto> latest) {
+    public static final CommentPreview EMPTY = new CommentPreview(0, List.of());
+}
@@ -0,0 +1,6 @@
+package ru.practicum.shareit.comment.dto;
+
+import java.time.LocalDateTime;
+
+public record CommentView(Long itemId, Long id, String text, String authorName, LocalDateTime created) {
+}
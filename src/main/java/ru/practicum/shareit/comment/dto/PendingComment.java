@@ -0,0 +1,14 @@
+package ru.practicum.shareit.comment.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Принятый, но ещё не сохранённый комментарий. Id выделен заранее, при приёме.
+ */
+public record PendingComment(Long id, Long itemId, Long authorId, String authorName, String text,
+                             LocalDateTime created) {
+
+    public PendingComment withId(Long id) {
+        return new PendingComment(id, itemId, authorId, authorName, text, created);
+    }
+}
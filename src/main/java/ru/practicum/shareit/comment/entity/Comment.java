@@ -13,7 +13,7 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Builder(setterPrefix = "with")
 @Entity
-@Table(name = "comments")
+@Table(name = "comments", indexes = @Index(name = "idx_comments_item_created", columnList = "item_id, created"))
 public class Comment {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
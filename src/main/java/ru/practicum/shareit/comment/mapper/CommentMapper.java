@@ -2,8 +2,13 @@ package ru.practicum.shareit.comment.mapper;
 
 import lombok.experimental.UtilityClass;
 import ru.practicum.shareit.comment.dto.CommentDto;
+import ru.practicum.shareit.comment.dto.CommentView;
 import ru.practicum.shareit.comment.entity.Comment;
 
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 @UtilityClass
 public class CommentMapper {
     public CommentDto entityItemToDto(Comment comment) {
@@ -14,4 +19,19 @@ public class CommentMapper {
                 .withCreated(comment.getCreated())
                 .build();
     }
+
+    public CommentDto viewToDto(CommentView view) {
+        return CommentDto.builder()
+                .withId(view.id())
+                .withAuthorName(view.authorName())
+                .withText(view.text())
+                .withCreated(view.created())
+                .build();
+    }
+
+    public Map<Long, List<CommentDto>> groupByItemId(List<CommentView> views) {
+        return views.stream()
+                .collect(Collectors.groupingBy(CommentView::itemId,
+                        Collectors.mapping(CommentMapper::viewToDto, Collectors.toList())));
+    }
 }
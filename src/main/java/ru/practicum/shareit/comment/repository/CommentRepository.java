@@ -1,7 +1,37 @@
 package ru.practicum.shareit.comment.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.comment.dto.CommentView;
 import ru.practicum.shareit.comment.entity.Comment;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    String VIEW_SELECT = "select new ru.practicum.shareit.comment.dto.CommentView(c.item.id, c.id, c.text, u.name, "
+            + "c.created) from Comment c join c.user u ";
+
+    // Не больше limit последних комментариев каждой вещи, внутри вещи — от старых к новым
+    @Query("select new ru.practicum.shareit.comment.dto.CommentView(r.itemId, r.id, r.text, r.authorName, r.created) "
+            + "from (select c.item.id as itemId, c.id as id, c.text as text, u.name as authorName, "
+            + "c.created as created, row_number() over (partition by c.item.id order by c.created desc, c.id desc) "
+            + "as position from Comment c join c.user u where c.item.id in ?1) r "
+            + "where r.position <= ?2 order by r.itemId, r.created, r.id")
+    List<CommentView> findLatestViewsByItemIdIn(Collection<Long> itemIds, int limit);
+
+    @Query(VIEW_SELECT + "where c.item.id = ?1 order by c.created desc, c.id desc")
+    List<CommentView> findFeedByItemId(Long itemId, Pageable pageable);
+
+    @Query(VIEW_SELECT + "where c.item.id = ?1 and (c.created < ?2 or (c.created = ?2 and c.id < ?3)) "
+            + "order by c.created desc, c.id desc")
+    List<CommentView> findFeedByItemIdAfter(Long itemId, LocalDateTime created, Long id, Pageable pageable);
+
+    @Query("select c.id from Comment c where c.item.id = ?1")
+    List<Long> findIdsByItemId(Long itemId, Pageable pageable);
+
+    @Query("select c.id from Comment c where c.user.id = ?1")
+    List<Long> findIdsByUserId(Long userId, Pageable pageable);
 }
@@ -0,0 +1,76 @@
+package ru.practicum.shareit.comment.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.comment.dto.CommentCursor;
+import ru.practicum.shareit.comment.dto.CommentDto;
+import ru.practicum.shareit.comment.dto.CommentPageDto;
+import ru.practicum.shareit.comment.dto.CommentPreview;
+import ru.practicum.shareit.comment.dto.CommentView;
+import ru.practicum.shareit.comment.mapper.CommentMapper;
+import ru.practicum.shareit.comment.repository.CommentRepository;
+import ru.practicum.shareit.item.dto.ItemCommentCount;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Комментарии в выдаче вещей и бронирований: к вещи прикладываются только счётчик и несколько
+ * последних комментариев, остальные читаются постранично из ленты с курсором по (created, id).
+ */
+@Component
+public class CommentFeed {
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final CommentRepository commentRepository;
+    private final ItemRepository itemRepository;
+    private final int latestPerItem;
+
+    public CommentFeed(CommentRepository commentRepository,
+                       ItemRepository itemRepository,
+                       @Value("${shareit.comments.latest-per-item:3}") int latestPerItem) {
+        this.commentRepository = commentRepository;
+        this.itemRepository = itemRepository;
+        this.latestPerItem = latestPerItem;
+    }
+
+    public Map<Long, CommentPreview> previews(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) return Map.of();
+        Map<Long, List<CommentDto>> latest = CommentMapper.groupByItemId(
+                commentRepository.findLatestViewsByItemIdIn(itemIds, latestPerItem));
+        Map<Long, CommentPreview> previews = new HashMap<>();
+        for (ItemCommentCount count : itemRepository.findCommentCountsByIdIn(itemIds)) {
+            if (count.commentCount() > 0) {
+                previews.put(count.itemId(), new CommentPreview(count.commentCount(),
+                        latest.getOrDefault(count.itemId(), List.of())));
+            }
+        }
+        return previews;
+    }
+
+    public CommentPreview preview(Long itemId) {
+        return previews(List.of(itemId)).getOrDefault(itemId, CommentPreview.EMPTY);
+    }
+
+    // Запрашивается на одну строку больше страницы: по ней видно, есть ли что читать дальше
+    public CommentPageDto page(Long itemId, String cursor, int limit) {
+        Pageable pageable = Pageable.ofSize(limit + 1);
+        List<CommentView> views;
+        if (cursor == null || cursor.isEmpty()) {
+            views = commentRepository.findFeedByItemId(itemId, pageable);
+        } else {
+            CommentCursor after = CommentCursor.decode(cursor);
+            views = commentRepository.findFeedByItemIdAfter(itemId, after.created(), after.id(), pageable);
+        }
+        if (views.size() <= limit) {
+            return new CommentPageDto(views.stream().map(CommentMapper::viewToDto).toList(), null);
+        }
+        List<CommentView> page = views.subList(0, limit);
+        return new CommentPageDto(page.stream().map(CommentMapper::viewToDto).toList(),
+                CommentCursor.after(page.get(limit - 1)).encode());
+    }
+}
@@ -0,0 +1,234 @@
+package ru.practicum.shareit.comment.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.comment.dto.PendingComment;
+import ru.practicum.shareit.comment.entity.Comment;
+import ru.practicum.shareit.exception.ServiceOverloadedException;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Отложенная запись комментариев: принятые комментарии складываются в ограниченную очередь
+ * и сохраняются пачками. Если очередь полна, запрос получает 503. Всё, что не удалось
+ * сохранить в БД, дописывается в файл и досохраняется при следующем запуске.
+ * В файл попадают только незафиксированные комментарии; после каждой пачки досохранения файл
+ * переписывается остатком, поэтому уже сохранённые комментарии не повторяются
+ * (кроме пачки, на которой упал сам процесс). Записи в файл сбрасываются на диск.
+ */
+@Slf4j
+@Component
+public class CommentWriter {
+    private static final String INSERT =
+            "insert into comments (id, text, item_id, name, created) values (?, ?, ?, ?, ?)";
+
+    private final SessionFactoryImplementor sessionFactory;
+    private final IdentifierGenerator idGenerator;
+    private final ItemRepository itemRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final BlockingQueue<PendingComment> queue;
+    private final int batchSize;
+    private final long offerTimeoutMillis;
+    private final Path spillFile;
+
+    public CommentWriter(EntityManagerFactory entityManagerFactory,
+                         ItemRepository itemRepository,
+                         JdbcTemplate jdbcTemplate,
+                         TransactionTemplate transactionTemplate,
+                         ObjectMapper objectMapper,
+                         @Value("${shareit.comments.queue-capacity:10000}") int queueCapacity,
+                         @Value("${shareit.comments.batch-size:200}") int batchSize,
+                         @Value("${shareit.comments.offer-timeout-ms:50}") long offerTimeoutMillis,
+                         @Value("${shareit.comments.spill-file:comments-spill.jsonl}") String spillFile) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.idGenerator = (IdentifierGenerator) sessionFactory.getMappingMetamodel()
+                .getEntityDescriptor(Comment.class).getGenerator();
+        this.itemRepository = itemRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.spillFile = Path.of(spillFile);
+    }
+
+    // Генератор сущности раздаёт id из пула и обращается к последовательности раз в allocationSize;
+    // отдельная сессия, потому что запрос может идти в транзакции только для чтения
+    public Long nextId() {
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            return (Long) idGenerator.generate((SharedSessionContractImplementor) session, null);
+        }
+    }
+
+    public void submit(PendingComment comment) {
+        try {
+            if (!queue.offer(comment, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new ServiceOverloadedException("Очередь комментариев переполнена, повторите запрос позже");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceOverloadedException("Комментарий не принят: поток прерван");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.comments.flush-ms:200}")
+    public synchronized void flush() {
+        List<PendingComment> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            int done = persist(batch);
+            if (done < batch.size()) {
+                spill(batch.subList(done, batch.size()));
+            }
+            batch.clear();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void replaySpill() {
+        if (!Files.exists(spillFile)) {
+            return;
+        }
+        try {
+            List<PendingComment> spilled = new ArrayList<>();
+            for (String line : Files.readAllLines(spillFile, StandardCharsets.UTF_8)) {
+                if (!line.isBlank()) {
+                    PendingComment comment = objectMapper.readValue(line, PendingComment.class);
+                    // Строки, записанные до появления id при приёме
+                    spilled.add(comment.id() == null ? comment.withId(nextId()) : comment);
+                }
+            }
+            if (spilled.isEmpty()) {
+                Files.delete(spillFile);
+            }
+            for (int from = 0; from < spilled.size(); from += batchSize) {
+                int to = Math.min(from + batchSize, spilled.size());
+                int done = persist(spilled.subList(from, to));
+                rewriteSpill(spilled.subList(from + done, spilled.size()));
+                if (from + done < to) {
+                    log.error("Досохранение комментариев из {} прервано, осталось {}",
+                            spillFile, spilled.size() - from - done);
+                    return;
+                }
+            }
+            log.info("Досохранено {} комментариев из {}", spilled.size(), spillFile);
+        } catch (IOException | RuntimeException e) {
+            log.error("Не удалось досохранить комментарии из {}: {}", spillFile, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    // Возвращает, сколько комментариев с начала пачки обработано (сохранено или отброшено);
+    // остальные при сбое БД не сохранены и должны уйти в файл
+    private int persist(List<PendingComment> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> save(batch));
+            return batch.size();
+        } catch (DataIntegrityViolationException e) {
+            // Вещь или автор могли быть удалены, пока комментарий ждал в очереди: сохраняем по одному
+            for (int i = 0; i < batch.size(); i++) {
+                PendingComment comment = batch.get(i);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> save(List.of(comment)));
+                } catch (DataIntegrityViolationException skipped) {
+                    log.warn("Комментарий к вещи с ID = {} отброшен: {}", comment.itemId(), skipped.getMessage());
+                } catch (RuntimeException failed) {
+                    logFailure(batch.size() - i, failed);
+                    return i;
+                }
+            }
+            return batch.size();
+        } catch (RuntimeException e) {
+            logFailure(batch.size(), e);
+            return 0;
+        }
+    }
+
+    private void logFailure(int count, RuntimeException e) {
+        log.error("Не удалось сохранить {} комментариев, сбрасываем в {}: {}", count, spillFile, e.getMessage());
+    }
+
+    // Счётчики комментариев у вещей меняются в той же транзакции, что и сами комментарии
+    private void save(List<PendingComment> batch) {
+        jdbcTemplate.batchUpdate(INSERT, batch, batch.size(), (ps, comment) -> {
+            ps.setLong(1, comment.id());
+            ps.setString(2, comment.text());
+            ps.setLong(3, comment.itemId());
+            ps.setLong(4, comment.authorId());
+            ps.setObject(5, comment.created());
+        });
+        batch.stream()
+                .collect(Collectors.groupingBy(PendingComment::itemId, TreeMap::new, Collectors.counting()))
+                .forEach(itemRepository::addCommentCount);
+    }
+
+    private void spill(List<PendingComment> batch) {
+        try {
+            write(spillFile, batch, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            log.error("Комментарии потеряны, не удалось записать {}: {}", spillFile, e.getMessage());
+        }
+    }
+
+    // Остаток пишется во временный файл и атомарно подменяет прежний: обрыв записи не портит файл
+    private void rewriteSpill(List<PendingComment> remaining) throws IOException {
+        if (remaining.isEmpty()) {
+            Files.delete(spillFile);
+            return;
+        }
+        Path temp = spillFile.resolveSibling(spillFile.getFileName() + ".tmp");
+        write(temp, remaining,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        Files.move(temp, spillFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // force: комментарии, о которых клиенту уже ответили, не должны пропасть вместе с кэшем ОС
+    private void write(Path file, List<PendingComment> comments, StandardOpenOption... options) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (PendingComment comment : comments) {
+            lines.append(objectMapper.writeValueAsString(comment)).append('\n');
+        }
+        try (FileChannel channel = FileChannel.open(file, options)) {
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+}
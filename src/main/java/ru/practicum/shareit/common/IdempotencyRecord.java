@@ -0,0 +1,42 @@
+package ru.practicum.shareit.common;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ключ идемпотентности. Пока запрос выполняется, response пуст, а expiresAt ограничивает
+ * время, на которое узел занял ключ; после успеха здесь хранится ответ до конца TTL.
+ */
+@Getter
+@Setter
+@ToString
+@Entity
+@Table(name = "idempotency_keys",
+        uniqueConstraints = @UniqueConstraint(name = "uq_idempotency_keys_scope_user_key",
+                columnNames = {"scope", "user_id", "idempotency_key"}),
+        indexes = @Index(name = "idx_idempotency_keys_expires", columnList = "expires_at"))
+public class IdempotencyRecord {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(nullable = false, length = 64)
+    private String scope;
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    @Column(name = "idempotency_key", nullable = false)
+    private String idempotencyKey;
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+    @ToString.Exclude
+    @Column(columnDefinition = "text")
+    private String response;
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public IdempotencyRecord() {
+    }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.common;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+    Optional<IdempotencyRecord> findByScopeAndUserIdAndIdempotencyKey(String scope, Long userId,
+                                                                     String idempotencyKey);
+
+    @Modifying
+    @Transactional
+    @Query("update IdempotencyRecord r set r.response = ?2, r.expiresAt = ?3 where r.id = ?1")
+    int complete(Long id, String response, LocalDateTime expiresAt);
+
+    // Условие на срок: ключ, который другой узел уже занял заново, не удаляется
+    @Modifying
+    @Transactional
+    @Query("delete from IdempotencyRecord r where r.id = ?1 and r.expiresAt <= ?2")
+    int deleteIfExpired(Long id, LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("delete from IdempotencyRecord r where r.expiresAt <= ?1")
+    int deleteExpired(LocalDateTime now);
+}
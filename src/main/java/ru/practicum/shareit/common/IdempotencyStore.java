@@ -0,0 +1,191 @@
+package ru.practicum.shareit.common;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.exception.ServiceOverloadedException;
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Хранилище ключей идемпотентности (заголовок Idempotency-Key) в общей таблице idempotency_keys.
+ * Запрос сначала вставляет строку ключа: уникальность (scope, user_id, idempotency_key) гарантирует,
+ * что на всех узлах выполнится только один из одновременных повторов. Повтор с тем же ключом получает
+ * сохранённый ответ без повторного выполнения, пока первый запрос не завершён, повтор опрашивает строку.
+ * Ошибки не сохраняются: после неудачи строка удаляется, и запрос с тем же ключом выполнится заново.
+ * Если узел упал посреди запроса, ключ освобождается по истечении lease.
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long POLL_MILLIS = 50;
+
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration lease;
+    private final long waitTimeoutMillis;
+
+    public IdempotencyStore(IdempotencyRecordRepository repository,
+                            ObjectMapper objectMapper,
+                            @Value("${shareit.idempotency.ttl-minutes:60}") long ttlMinutes,
+                            @Value("${shareit.idempotency.lease-seconds:60}") long leaseSeconds,
+                            @Value("${shareit.idempotency.wait-timeout-ms:10000}") long waitTimeoutMillis) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.waitTimeoutMillis = waitTimeoutMillis;
+    }
+
+    public <T> T execute(String operation, Long userId, String idempotencyKey, Object request,
+                         Class<T> responseType, Supplier<T> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new ValidationException("Ключ идемпотентности должен содержать от 1 до %d символов"
+                    .formatted(MAX_KEY_LENGTH));
+        }
+        String fingerprint = fingerprint(request);
+        long deadline = System.currentTimeMillis() + waitTimeoutMillis;
+        while (true) {
+            IdempotencyRecord own = claim(operation, userId, idempotencyKey, fingerprint);
+            if (own != null) {
+                return run(own, action);
+            }
+            Optional<T> replay = awaitResponse(operation, userId, idempotencyKey, fingerprint, responseType, deadline);
+            if (replay.isPresent()) {
+                return replay.get();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.idempotency.cleanup-ms:60000}")
+    public void removeExpired() {
+        int deleted = repository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.debug("Удалено {} устаревших ключей идемпотентности", deleted);
+        }
+    }
+
+    // Строка вставляется до выполнения запроса; null, если ключ уже занят
+    private IdempotencyRecord claim(String operation, Long userId, String idempotencyKey, String fingerprint) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setScope(operation);
+        record.setUserId(userId);
+        record.setIdempotencyKey(idempotencyKey);
+        record.setFingerprint(fingerprint);
+        record.setExpiresAt(LocalDateTime.now().plus(lease));
+        try {
+            return repository.saveAndFlush(record);
+        } catch (DataIntegrityViolationException e) {
+            return null;
+        }
+    }
+
+    // Ключ занят: строка опрашивается без новых вставок, пока не появится ответ;
+    // пустой результат значит, что ключ освободился и его можно занять снова
+    private <T> Optional<T> awaitResponse(String operation, Long userId, String idempotencyKey, String fingerprint,
+                                          Class<T> responseType, long deadline) {
+        while (true) {
+            Optional<IdempotencyRecord> existing =
+                    repository.findByScopeAndUserIdAndIdempotencyKey(operation, userId, idempotencyKey);
+            if (existing.isEmpty()) {
+                // Первый запрос завершился ошибкой и удалил строку
+                return Optional.empty();
+            }
+            IdempotencyRecord record = existing.get();
+            LocalDateTime now = LocalDateTime.now();
+            if (!record.getExpiresAt().isAfter(now)) {
+                // Истёк срок хранения ответа или lease узла, не завершившего запрос
+                repository.deleteIfExpired(record.getId(), now);
+                return Optional.empty();
+            }
+            if (!record.getFingerprint().equals(fingerprint)) {
+                throw new ValidationException("Ключ идемпотентности уже использован для другого запроса");
+            }
+            if (record.getResponse() != null) {
+                log.debug("Повтор запроса {} с ключом {}", operation, idempotencyKey);
+                return Optional.of(read(record.getResponse(), responseType));
+            }
+            awaitRetry(deadline);
+        }
+    }
+
+    private <T> T run(IdempotencyRecord record, Supplier<T> action) {
+        T result;
+        try {
+            result = action.get();
+        } catch (RuntimeException | Error e) {
+            release(record);
+            throw e;
+        }
+        try {
+            repository.complete(record.getId(), write(result), LocalDateTime.now().plus(ttl));
+        } catch (RuntimeException e) {
+            // Запрос уже выполнен: ответ отдаётся, а ключ освободится по истечении lease
+            log.warn("Не удалось сохранить ответ для ключа идемпотентности {}: {}",
+                    record.getIdempotencyKey(), e.getMessage());
+        }
+        return result;
+    }
+
+    private void release(IdempotencyRecord record) {
+        try {
+            repository.deleteById(record.getId());
+        } catch (RuntimeException e) {
+            log.warn("Не удалось освободить ключ идемпотентности {}, он освободится по истечении lease: {}",
+                    record.getIdempotencyKey(), e.getMessage());
+        }
+    }
+
+    private void awaitRetry(long deadline) {
+        if (System.currentTimeMillis() >= deadline) {
+            throw new ServiceOverloadedException("Запрос с этим ключом идемпотентности ещё выполняется");
+        }
+        try {
+            Thread.sleep(POLL_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceOverloadedException("Ожидание запроса с этим ключом идемпотентности прервано");
+        }
+    }
+
+    private String write(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сохранить ответ запроса", e);
+        }
+    }
+
+    private <T> T read(String response, Class<T> responseType) {
+        try {
+            return objectMapper.readValue(response, responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось прочитать сохранённый ответ запроса", e);
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Не удалось вычислить отпечаток запроса", e);
+        }
+    }
+}
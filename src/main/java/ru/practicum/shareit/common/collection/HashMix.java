@@ -0,0 +1,17 @@
+package ru.practicum.shareit.common.collection;
+
+final class HashMix {
+    private HashMix() {
+    }
+
+    // Финализатор murmur3: последовательные id равномерно расходятся по таблице
+    static int mix(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.common.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Элемент ответа пакетного запроса по списку ID: либо найденное значение, либо отметка об ошибке.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record MultiGetResult<T>(Long id, T value, String error) {
+    public static final int MAX_IDS = 100;
+    public static final String NOT_FOUND = "NOT_FOUND";
+
+    // Пустой элемент списка, например ids=1,,2, приходит как null
+    public static void checkIds(Collection<Long> ids) {
+        if (ids.size() > MAX_IDS) {
+            throw new ValidationException("Можно запросить не больше %d ID за раз".formatted(MAX_IDS));
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new ValidationException("Список ID не должен содержать пустых значений");
+        }
+    }
+
+    // Порядок и повторы ID сохраняются такими, какими их передал клиент
+    public static <T> List<MultiGetResult<T>> inOrder(List<Long> ids, Map<Long, T> found) {
+        return ids.stream()
+                .map(id -> found.containsKey(id)
+                        ? new MultiGetResult<>(id, found.get(id), null)
+                        : new MultiGetResult<T>(id, null, NOT_FOUND))
+                .toList();
+    }
+}
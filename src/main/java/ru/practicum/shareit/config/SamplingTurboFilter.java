@@ -0,0 +1,71 @@
+package ru.practicum.shareit.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Пропускает только каждое N-е событие логгера (и его потомков) не выше заданного уровня.
+ * Подключается в logback-spring.xml, по фильтру на каждый логгер с частыми сообщениями.
+ * Отклонённые события отбрасываются до форматирования сообщения и его аргументов.
+ * Счётчик свой у каждого шаблона сообщения: поток частых 404 не прячет редкие 400 и 409.
+ * Число шаблонов ограничено, сверх предела шаблоны делят общий счётчик.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+    private static final int MAX_FORMATS = 1024;
+
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+    private final AtomicLong overflowCounter = new AtomicLong();
+    private String logger;
+    private int every = 100;
+    private Level maxLevel = Level.WARN;
+
+    public void setLogger(String logger) {
+        this.logger = logger;
+    }
+
+    public void setEvery(int every) {
+        this.every = every;
+    }
+
+    public void setMaxLevel(String maxLevel) {
+        this.maxLevel = Level.toLevel(maxLevel, Level.WARN);
+    }
+
+    @Override
+    public void start() {
+        if (logger == null || every < 1) {
+            addError("Для SamplingTurboFilter нужны logger и every >= 1");
+            return;
+        }
+        super.start();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger eventLogger, Level level, String format, Object[] params,
+                              Throwable t) {
+        if (!isStarted() || level.toInt() > maxLevel.toInt() || !eventLogger.getName().startsWith(logger)
+                || !level.isGreaterOrEqual(eventLogger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        return counter(format).getAndIncrement() % every == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private AtomicLong counter(String format) {
+        String key = format == null ? "" : format;
+        AtomicLong counter = counters.get(key);
+        if (counter != null) {
+            return counter;
+        }
+        if (counters.size() >= MAX_FORMATS) {
+            return overflowCounter;
+        }
+        return counters.computeIfAbsent(key, k -> new AtomicLong());
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Планировщики фоновых задач. Частые короткие задачи (очередь комментариев, шина инвалидации, outbox)
+ * выполняются на общем пуле taskScheduler, его настраивают свойства spring.task.scheduling.*.
+ * Долгие задачи обслуживания с паузами внутри (reaper, архивация) идут на отдельном пуле
+ * и не задерживают остальные.
+ */
+@Configuration
+public class SchedulingConfig {
+    public static final String MAINTENANCE_SCHEDULER = "maintenanceScheduler";
+
+    // Имя taskScheduler делает его планировщиком по умолчанию для @Scheduled без явного scheduler
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder) {
+        return builder.build();
+    }
+
+    @Bean(MAINTENANCE_SCHEDULER)
+    public ThreadPoolTaskScheduler maintenanceScheduler(@Value("${shareit.maintenance.pool-size:2}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("maintenance-");
+        return scheduler;
+    }
+}
@@ -24,10 +24,24 @@ public class GlobalExceptionHandler {
         return new ErrorResponse("Ошибка валидации", e.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleExistException(ExistException e) {
+        log.warn("Конфликт данных: {}", e.getMessage());
+        return new ErrorResponse("Объект уже существует", e.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleServiceOverloadedException(ServiceOverloadedException e) {
+        log.warn("Сервис перегружен: {}", e.getMessage());
+        return new ErrorResponse("Сервис перегружен", e.getMessage());
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleThrowable(Throwable e) {
-        log.warn("Исключение со стороны сервера: {}", e.getMessage());
+        log.error("Исключение со стороны сервера: {}", e.getMessage());
         return new ErrorResponse("Исключение со стороны сервера", e.getMessage());
     }
 }
\ No newline at end of file
@@ -1,15 +1,26 @@
 package ru.practicum.shareit.item;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.comment.dto.CommentDto;
+import ru.practicum.shareit.comment.dto.CommentPageDto;
+import ru.practicum.shareit.comment.service.CommentFeed;
+import ru.practicum.shareit.common.IdempotencyStore;
+import ru.practicum.shareit.common.dto.MultiGetResult;
+import ru.practicum.shareit.item.dto.ItemCalendarDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoWithDate;
+import ru.practicum.shareit.item.dto.ItemPopularityDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.service.PopularityWindow;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -21,33 +32,72 @@ import java.util.List;
 @RequestMapping("/items")
 public class ItemController {
     private final ItemService itemService;
+    private final IdempotencyStore idempotencyStore;
     private static final String REQUEST_HEADER = "X-Sharer-User-Id";
+    private static final String IDEMPOTENCY_HEADER = "Idempotency-Key";
 
     @GetMapping
     public List<ItemDto> getAllUsersItems(@RequestHeader(REQUEST_HEADER) Long userId) {
         return itemService.getAllUsersItems(userId);
     }
 
+    @GetMapping(params = "ids")
+    public List<MultiGetResult<ItemDtoWithDate>> getItemsByIds(@RequestParam List<Long> ids) {
+        return itemService.getItemsByIds(ids);
+    }
+
     @GetMapping("/{itemId}")
     public ItemDtoWithDate getItemById(@PathVariable Long itemId, @RequestHeader(REQUEST_HEADER) Long userId) {
         return itemService.getItemById(itemId, userId);
     }
 
+    @GetMapping("/{itemId}/calendar")
+    public ItemCalendarDto getItemCalendar(
+            @Positive @PathVariable Long itemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return itemService.getItemCalendar(itemId, from, to);
+    }
+
     @GetMapping("/search")
     public List<ItemDto> getItemsByText(@RequestParam String text) {
         return itemService.getItemsByText(text);
     }
 
+    @GetMapping("/top")
+    public List<ItemPopularityDto> getTopItems(@RequestParam(defaultValue = "WEEK") PopularityWindow window) {
+        return itemService.getTopItems(window);
+    }
+
+    @GetMapping("/suggest")
+    public List<ItemSuggestionDto> suggestItems(@RequestParam String prefix,
+                                                @Positive @RequestParam(defaultValue = "10") int limit) {
+        return itemService.suggestItems(prefix, limit);
+    }
+
     @PostMapping
-    public ItemDto createNewItem(@Valid @RequestBody ItemDto itemDto, @RequestHeader(REQUEST_HEADER) Long userId) {
-        return itemService.addItem(itemDto, userId);
+    public ItemDto createNewItem(@Valid @RequestBody ItemDto itemDto, @RequestHeader(REQUEST_HEADER) Long userId,
+                                 @RequestHeader(name = IDEMPOTENCY_HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute("createItem", userId, idempotencyKey, itemDto, ItemDto.class,
+                () -> itemService.addItem(itemDto, userId));
     }
 
     @PostMapping("/{itemId}/comment")
     public CommentDto addNewComment(@Valid @RequestBody CommentDto commentDto,
                                        @Positive @PathVariable Long itemId,
-                                       @RequestHeader(REQUEST_HEADER) Long userId) {
-        return itemService.addComment(commentDto, itemId, userId);
+                                       @RequestHeader(REQUEST_HEADER) Long userId,
+                                       @RequestHeader(name = IDEMPOTENCY_HEADER, required = false)
+                                       String idempotencyKey) {
+        return idempotencyStore.execute("addComment", userId, idempotencyKey, List.of(itemId, commentDto),
+                CommentDto.class, () -> itemService.addComment(commentDto, itemId, userId));
+    }
+
+    @GetMapping("/{itemId}/comments")
+    public CommentPageDto getItemComments(@Positive @PathVariable Long itemId,
+                                          @RequestParam(required = false) String cursor,
+                                          @Positive @Max(CommentFeed.MAX_PAGE_SIZE)
+                                          @RequestParam(defaultValue = "20") int limit) {
+        return itemService.getItemComments(itemId, cursor, limit);
     }
 
     @PatchMapping("/{itemId}")
@@ -0,0 +1,6 @@
+package ru.practicum.shareit.item.dto;
+
+import java.time.LocalDateTime;
+
+public record CalendarIntervalDto(LocalDateTime start, LocalDateTime end, boolean busy) {
+}
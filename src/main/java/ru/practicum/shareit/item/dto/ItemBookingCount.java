@@ -0,0 +1,4 @@
+package ru.practicum.shareit.item.dto;
+
+public record ItemBookingCount(Long itemId, Long totalBookings) {
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.item.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record ItemCalendarDto(Long itemId, LocalDateTime from, LocalDateTime to, List<CalendarIntervalDto> intervals) {
+}
@@ -18,6 +18,7 @@ public class ItemDtoWithDate {
     @Length(min = 1, max = 500)
     private String description;
     private Boolean available;
+    private Long commentCount;
     private List<CommentDto> comments;
     private LocalDateTime lastBooking;
     private LocalDateTime nextBooking;
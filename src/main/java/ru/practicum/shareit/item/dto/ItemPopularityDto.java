@@ -0,0 +1,4 @@
+package ru.practicum.shareit.item.dto;
+
+public record ItemPopularityDto(Long id, String name, double score) {
+}
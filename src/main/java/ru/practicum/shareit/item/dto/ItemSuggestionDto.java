@@ -0,0 +1,4 @@
+package ru.practicum.shareit.item.dto;
+
+public record ItemSuggestionDto(Long id, String name) {
+}
@@ -0,0 +1,4 @@
+package ru.practicum.shareit.item.dto;
+
+public record ItemView(Long id, String name, String description, Boolean available) {
+}
@@ -4,10 +4,9 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.SQLRestriction;
 import org.hibernate.validator.constraints.Length;
-import ru.practicum.shareit.comment.entity.Comment;
-
-import java.util.List;
 
 /**
  * TODO Sprint add-controllers.
@@ -19,6 +18,7 @@ import java.util.List;
 @ToString
 @Entity
 @Table(name = "items")
+@SQLRestriction("deleted = false")
 public class Item {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -35,8 +35,13 @@ public class Item {
     @NotNull
     private Long ownerId;
     private Long requestId;
-    @OneToMany(mappedBy = "item", fetch = FetchType.LAZY)
-    private List<Comment> comments;
+    // Поддерживается при записи комментариев, чтобы не считать их при каждой выдаче вещи.
+    // Меняется только атомарным update в БД: полная запись вещи не должна затирать параллельные прибавки
+    @ColumnDefault("0")
+    @Column(name = "comment_count", nullable = false, insertable = false, updatable = false)
+    private long commentCount;
+    @Column(nullable = false)
+    private boolean deleted;
 
     public Item() {
     }
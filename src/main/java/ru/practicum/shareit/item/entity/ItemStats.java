@@ -0,0 +1,33 @@
+package ru.practicum.shareit.item.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Счётчики популярности вещи, общие для всех узлов. Оценки по окнам хранятся на момент updatedMillis
+ * и дозатухают до текущего времени при каждой прибавке и при чтении топа.
+ * Время хранится числом, чтобы затухание считалось в SQL одинаково на любой СУБД.
+ */
+@Getter
+@Setter
+@ToString
+@Entity
+@Table(name = "item_stats", indexes = @Index(name = "idx_item_stats_updated", columnList = "updated_millis"))
+public class ItemStats {
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+    @Column(name = "total_bookings", nullable = false)
+    private long totalBookings;
+    @Column(name = "day_score", nullable = false)
+    private double dayScore;
+    @Column(name = "week_score", nullable = false)
+    private double weekScore;
+    @Column(name = "month_score", nullable = false)
+    private double monthScore;
+    @Column(name = "updated_millis", nullable = false)
+    private long updatedMillis;
+
+    public ItemStats() {
+    }
+}
@@ -1,39 +1,48 @@
 package ru.practicum.shareit.item.mapper;
 
 import lombok.experimental.UtilityClass;
-import ru.practicum.shareit.comment.mapper.CommentMapper;
+import ru.practicum.shareit.comment.dto.CommentPreview;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoWithDate;
+import ru.practicum.shareit.item.dto.ItemView;
 import ru.practicum.shareit.item.entity.Item;
 
 import java.time.LocalDateTime;
 
 @UtilityClass
 public class ItemMapper {
-    public ItemDto entityItemToDto(Item item) {
-        ItemDto result = ItemDto.builder()
+    public ItemDto entityItemToDto(Item item, CommentPreview comments) {
+        return ItemDto.builder()
                 .id(item.getId())
                 .name(item.getName())
                 .description(item.getDescription())
                 .available(item.getAvailable())
+                .commentCount(comments.count())
+                .comments(comments.latest())
+                .build();
+    }
+
+    public ItemDto viewToDto(ItemView view, CommentPreview comments) {
+        return ItemDto.builder()
+                .id(view.id())
+                .name(view.name())
+                .description(view.description())
+                .available(view.available())
+                .commentCount(comments.count())
+                .comments(comments.latest())
                 .build();
-        if (item.getComments() != null) {
-            result.setComments(item.getComments().stream().map(CommentMapper::entityItemToDto).toList());
-            return result;
-        }
-        return result;
     }
 
-    public ItemDtoWithDate entityItemToDtoWithDate(Item item, LocalDateTime last, LocalDateTime next) {
+    public ItemDtoWithDate viewToDtoWithDate(ItemView view, CommentPreview comments,
+                                             LocalDateTime last, LocalDateTime next) {
         ItemDtoWithDate result = ItemDtoWithDate.builder()
-                .id(item.getId())
-                .name(item.getName())
-                .description(item.getDescription())
-                .available(item.getAvailable())
+                .id(view.id())
+                .name(view.name())
+                .description(view.description())
+                .available(view.available())
+                .commentCount(comments.count())
+                .comments(comments.latest())
                 .build();
-        if (item.getComments() != null) {
-            result.setComments(item.getComments().stream().map(CommentMapper::entityItemToDto).toList());
-        }
         if (last != null && next != null) {
             result.setLastBooking(last);
             result.setNextBooking(next);
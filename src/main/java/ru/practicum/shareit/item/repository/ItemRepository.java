@@ -1,15 +1,75 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.dto.ItemCommentCount;
+import ru.practicum.shareit.item.dto.ItemView;
 import ru.practicum.shareit.item.entity.Item;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
-    List<Item> findAllByOwnerId(Long ownerId);
+    Optional<Item> findItemByIdAndOwnerId(Long id, Long ownerId);
 
-    List<Item> findItemsByNameIgnoreCase(String name);
+    @Query("select new ru.practicum.shareit.item.dto.ItemView(i.id, i.name, i.description, i.available) "
+            + "from Item i where i.id = ?1")
+    Optional<ItemView> findViewById(Long id);
 
-    Optional<Item> findItemByIdAndOwnerId(Long id, Long ownerId);
+    @Query("select new ru.practicum.shareit.item.dto.ItemView(i.id, i.name, i.description, i.available) "
+            + "from Item i where i.ownerId = ?1")
+    List<ItemView> findViewsByOwnerId(Long ownerId);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemView(i.id, i.name, i.description, i.available) "
+            + "from Item i where upper(i.name) = upper(?1) and i.available = true")
+    List<ItemView> findAvailableViewsByName(String name);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemView(i.id, i.name, i.description, i.available) "
+            + "from Item i where i.available = true")
+    List<ItemView> findAvailableViews();
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemView(i.id, i.name, i.description, i.available) "
+            + "from Item i where i.id in ?1")
+    List<ItemView> findViewsByIdIn(Collection<Long> ids);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemCommentCount(i.id, i.commentCount) "
+            + "from Item i where i.id in ?1")
+    List<ItemCommentCount> findCommentCountsByIdIn(Collection<Long> ids);
+
+    @Modifying
+    @Query("update Item i set i.commentCount = i.commentCount + ?2 where i.id = ?1")
+    int addCommentCount(Long id, long delta);
+
+    // Комментарии удалённого пользователя пропадают из выдачи сразу, поэтому и счётчики уменьшаются сразу
+    @Modifying
+    @Query("update Item i set i.commentCount = i.commentCount "
+            + "- (select count(c) from Comment c where c.item.id = i.id and c.user.id = ?1) "
+            + "where i.id in (select c.item.id from Comment c where c.user.id = ?1)")
+    int subtractCommentsByUserId(Long userId);
+
+    @Query("select i.ownerId from Item i where i.id = ?1")
+    Optional<Long> findOwnerIdById(Long id);
+
+    @Query("select i.id from Item i where i.ownerId = ?1")
+    List<Long> findIdsByOwnerId(Long ownerId, Pageable pageable);
+
+    @Modifying
+    @Query("update Item i set i.deleted = true where i.id in ?1")
+    int markDeleted(Collection<Long> ids);
+
+    @Query(value = "select id from items where deleted = true limit ?1", nativeQuery = true)
+    List<Long> findDeletedIds(int limit);
+
+    @Query(value = "select count(*) from items where deleted = true", nativeQuery = true)
+    long countDeleted();
+
+    @Query(value = "select count(*) > 0 from items where owner_id = ?1", nativeQuery = true)
+    boolean existsAnyByOwnerId(Long ownerId);
+
+    @Modifying
+    @Query(value = "delete from items where id = ?1 and deleted = true", nativeQuery = true)
+    int purgeDeleted(Long id);
 }
@@ -0,0 +1,45 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.dto.ItemBookingCount;
+import ru.practicum.shareit.item.entity.ItemStats;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ItemStatsRepository extends JpaRepository<ItemStats, Long> {
+    // Прибавка атомарна, поэтому узлы не затирают счётчики друг друга. Оценки сначала дозатухают
+    // до now; часы узлов могут расходиться, поэтому время не идёт назад
+    @Modifying
+    @Query(value = "update item_stats set total_bookings = total_bookings + ?2, "
+            + "day_score = day_score * power(0.5, cast(greatest(?3 - updated_millis, 0) as double precision) "
+            + "/ ?4) + ?2, "
+            + "week_score = week_score * power(0.5, cast(greatest(?3 - updated_millis, 0) as double precision) "
+            + "/ ?5) + ?2, "
+            + "month_score = month_score * power(0.5, cast(greatest(?3 - updated_millis, 0) as double precision) "
+            + "/ ?6) + ?2, "
+            + "updated_millis = greatest(updated_millis, ?3) "
+            + "where item_id = ?1", nativeQuery = true)
+    int addBookings(Long itemId, long delta, long now, long dayMillis, long weekMillis, long monthMillis);
+
+    @Modifying
+    @Query(value = "insert into item_stats (item_id, total_bookings, day_score, week_score, month_score, "
+            + "updated_millis) values (?1, ?2, ?2, ?2, ?2, ?3)", nativeQuery = true)
+    int insertBookings(Long itemId, long delta, long now);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemBookingCount(s.itemId, s.totalBookings) from ItemStats s")
+    List<ItemBookingCount> findAllBookingCounts();
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemBookingCount(s.itemId, s.totalBookings) "
+            + "from ItemStats s where s.updatedMillis >= ?1")
+    List<ItemBookingCount> findBookingCountsUpdatedSince(long since);
+
+    @Query("select s.totalBookings from ItemStats s where s.itemId = ?1")
+    Optional<Long> findTotalBookingsByItemId(Long itemId);
+
+    @Modifying
+    @Query("delete from ItemStats s where s.itemId = ?1")
+    int deleteByItemId(Long itemId);
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.item.service;
+
+/**
+ * Событие бронирования вещи для статистики популярности; учитывается после коммита транзакции.
+ */
+public record ItemBooked(Long itemId) {
+}
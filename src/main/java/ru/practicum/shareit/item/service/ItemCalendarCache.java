@@ -0,0 +1,105 @@
+package ru.practicum.shareit.item.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.cache.CacheInvalidation;
+import ru.practicum.shareit.cache.CacheInvalidationListener;
+import ru.practicum.shareit.cache.CacheRegion;
+import ru.practicum.shareit.item.dto.ItemCalendarDto;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Кэш календарей занятости по вещам. Сбрасывается целиком для вещи при любом изменении её бронирований.
+ * Вещи и периоды внутри вещи вытесняются по давности использования (LRU).
+ * Календарь, при загрузке которого пришла инвалидация, не кэшируется: он мог быть прочитан до изменения.
+ */
+@Component
+public class ItemCalendarCache implements CacheInvalidationListener {
+    private final Map<Long, ItemCalendars> calendars;
+    private final int maxRangesPerItem;
+
+    public ItemCalendarCache(@Value("${shareit.calendar.cache.max-items:10000}") int maxItems,
+                             @Value("${shareit.calendar.cache.max-ranges-per-item:16}") int maxRangesPerItem) {
+        this.calendars = new LruMap<>(maxItems);
+        this.maxRangesPerItem = maxRangesPerItem;
+    }
+
+    public ItemCalendarDto get(Long itemId, LocalDateTime from, LocalDateTime to, Supplier<ItemCalendarDto> loader) {
+        Range range = new Range(from, to);
+        ItemCalendars item;
+        synchronized (calendars) {
+            item = calendars.computeIfAbsent(itemId, id -> new ItemCalendars(maxRangesPerItem));
+        }
+        long generation;
+        synchronized (item) {
+            ItemCalendarDto cached = item.ranges.get(range);
+            if (cached != null) {
+                return cached;
+            }
+            generation = item.generation;
+        }
+        ItemCalendarDto calendar = loader.get();
+        synchronized (item) {
+            if (item.generation == generation) {
+                item.ranges.put(range, calendar);
+            }
+        }
+        return calendar;
+    }
+
+    // Загрузки, начатые до сброса, пишут в уже отвязанные от карты объекты и в кэш не попадают
+    public void clear() {
+        synchronized (calendars) {
+            calendars.clear();
+        }
+    }
+
+    @Override
+    public void invalidate(CacheInvalidation invalidation) {
+        if (invalidation.region() == CacheRegion.ITEM_BOOKINGS || invalidation.region() == CacheRegion.ITEM) {
+            ItemCalendars item;
+            synchronized (calendars) {
+                item = calendars.get(invalidation.id());
+            }
+            if (item != null) {
+                synchronized (item) {
+                    item.generation++;
+                    item.ranges.clear();
+                }
+            }
+        }
+    }
+
+    private record Range(LocalDateTime from, LocalDateTime to) {
+    }
+
+    /**
+     * Календари одной вещи; generation растёт с каждой инвалидацией. Доступ под монитором объекта.
+     */
+    private static final class ItemCalendars {
+        private final Map<Range, ItemCalendarDto> ranges;
+        private long generation;
+
+        private ItemCalendars(int maxRanges) {
+            this.ranges = new LruMap<>(maxRanges);
+        }
+    }
+
+    private static final class LruMap<K, V> extends LinkedHashMap<K, V> {
+        private final int maxSize;
+
+        private LruMap(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > maxSize;
+        }
+    }
+}
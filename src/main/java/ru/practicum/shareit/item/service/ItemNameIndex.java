@@ -0,0 +1,265 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.cache.CacheInvalidation;
+import ru.practicum.shareit.cache.CacheInvalidationListener;
+import ru.practicum.shareit.cache.CacheRegion;
+import ru.practicum.shareit.common.collection.LongLongHashMap;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.item.dto.ItemView;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Префиксное дерево названий доступных вещей для автодополнения.
+ * Каждое название индексируется с начала каждого слова, поэтому "дрель" находит и "Ударная дрель".
+ * Каждый узел хранит готовый топ своего поддерева по числу бронирований, поэтому подсказка
+ * не обходит поддерево; топы пересчитываются вдоль пути при изменении вещи или её популярности.
+ */
+@Slf4j
+@Component
+public class ItemNameIndex implements CacheInvalidationListener {
+    public static final int MAX_SUGGESTIONS = 50;
+    private static final int INITIAL_SIZE = 1024;
+
+    private final ItemRepository itemRepository;
+    private final ItemPopularityTracker itemPopularityTracker;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node();
+    private final Map<Long, String> names = new HashMap<>();
+    // Снимок числа бронирований: порядок в топах узлов не должен меняться без их пересчёта
+    private final LongLongHashMap bookingCounts = new LongLongHashMap(INITIAL_SIZE);
+    private final Comparator<Long> ranking = Comparator.<Long>comparingLong(id -> -bookingCounts.get(id, 0))
+            .thenComparingLong(id -> id);
+
+    public ItemNameIndex(ItemRepository itemRepository, ItemPopularityTracker itemPopularityTracker) {
+        this.itemRepository = itemRepository;
+        this.itemPopularityTracker = itemPopularityTracker;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<ItemView> items = itemRepository.findAvailableViews();
+        Map<Long, Long> counts = itemPopularityTracker.bookingCounts();
+        items.forEach(item -> put(item, counts.getOrDefault(item.id(), 0L)));
+        log.info("Индекс названий построен по {} вещам", items.size());
+    }
+
+    @Override
+    public void invalidate(CacheInvalidation invalidation) {
+        if (invalidation.region() == CacheRegion.ITEM) {
+            itemRepository.findViewById(invalidation.id())
+                    .ifPresentOrElse(this::put, () -> remove(List.of(invalidation.id())));
+        }
+    }
+
+    @EventListener
+    public void onPopularityUpdated(ItemPopularityUpdated event) {
+        lock.writeLock().lock();
+        try {
+            event.bookingCounts().forEach((itemId, count) -> {
+                String name = names.get(itemId);
+                if (name != null && bookingCounts.get(itemId, 0) != count) {
+                    bookingCounts.put(itemId, count);
+                    for (String key : keys(name)) {
+                        root.refresh(key, 0, ranking);
+                    }
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(ItemView item) {
+        put(item, itemPopularityTracker.bookingCount(item.id()));
+    }
+
+    private void put(ItemView item, long count) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(item.id());
+            if (Boolean.TRUE.equals(item.available()) && item.name() != null) {
+                names.put(item.id(), item.name());
+                bookingCounts.put(item.id(), count);
+                for (String key : keys(item.name())) {
+                    root.insert(key, 0, item.id(), ranking);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Collection<Long> itemIds) {
+        lock.writeLock().lock();
+        try {
+            itemIds.forEach(this::removeLocked);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<ItemSuggestionDto> suggest(String prefix, int limit) {
+        String key = prefix.toLowerCase(Locale.ROOT).strip();
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Node node = root.find(key);
+            if (node == null) {
+                return List.of();
+            }
+            List<ItemSuggestionDto> suggestions = new ArrayList<>(Math.min(limit, node.topCount));
+            for (int i = 0; i < node.topCount && i < limit; i++) {
+                suggestions.add(new ItemSuggestionDto(node.top[i], names.get(node.top[i])));
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeLocked(Long itemId) {
+        String name = names.remove(itemId);
+        if (name != null) {
+            for (String key : keys(name)) {
+                root.delete(key, 0, itemId, ranking);
+            }
+            bookingCounts.remove(itemId);
+        }
+    }
+
+    private static Set<String> keys(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        Set<String> keys = new HashSet<>();
+        for (int i = 0; i < lower.length(); i++) {
+            boolean wordStart = i == 0 || !Character.isLetterOrDigit(lower.charAt(i - 1));
+            if (wordStart && Character.isLetterOrDigit(lower.charAt(i))) {
+                keys.add(lower.substring(i));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Узел дерева: дети и идентификаторы хранятся в массивах, отсортированных по символу.
+     * top — не больше MAX_SUGGESTIONS лучших вещей поддерева, от популярных к менее популярным.
+     */
+    private static final class Node {
+        private char[] labels = new char[0];
+        private Node[] children = new Node[0];
+        private int childCount;
+        private long[] itemIds = new long[0];
+        private int itemCount;
+        private long[] top = new long[0];
+        private int topCount;
+
+        Node find(String key) {
+            Node node = this;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                int index = Arrays.binarySearch(node.labels, 0, node.childCount, key.charAt(i));
+                node = index >= 0 ? node.children[index] : null;
+            }
+            return node;
+        }
+
+        void insert(String key, int position, long itemId, Comparator<Long> ranking) {
+            if (position == key.length()) {
+                if (itemIds.length == itemCount) {
+                    itemIds = Arrays.copyOf(itemIds, Math.max(2, itemCount * 2));
+                }
+                itemIds[itemCount++] = itemId;
+            } else {
+                char label = key.charAt(position);
+                int index = Arrays.binarySearch(labels, 0, childCount, label);
+                if (index < 0) {
+                    index = -index - 1;
+                    if (labels.length == childCount) {
+                        labels = Arrays.copyOf(labels, Math.max(2, childCount * 2));
+                        children = Arrays.copyOf(children, labels.length);
+                    }
+                    System.arraycopy(labels, index, labels, index + 1, childCount - index);
+                    System.arraycopy(children, index, children, index + 1, childCount - index);
+                    labels[index] = label;
+                    children[index] = new Node();
+                    childCount++;
+                }
+                children[index].insert(key, position + 1, itemId, ranking);
+            }
+            refreshTop(ranking);
+        }
+
+        boolean delete(String key, int position, long itemId, Comparator<Long> ranking) {
+            if (position == key.length()) {
+                for (int i = 0; i < itemCount; i++) {
+                    if (itemIds[i] == itemId) {
+                        itemIds[i] = itemIds[--itemCount];
+                        break;
+                    }
+                }
+            } else {
+                int index = Arrays.binarySearch(labels, 0, childCount, key.charAt(position));
+                if (index >= 0 && children[index].delete(key, position + 1, itemId, ranking)) {
+                    System.arraycopy(labels, index + 1, labels, index, childCount - index - 1);
+                    System.arraycopy(children, index + 1, children, index, childCount - index - 1);
+                    children[--childCount] = null;
+                }
+            }
+            refreshTop(ranking);
+            return itemCount == 0 && childCount == 0;
+        }
+
+        void refresh(String key, int position, Comparator<Long> ranking) {
+            if (position < key.length()) {
+                int index = Arrays.binarySearch(labels, 0, childCount, key.charAt(position));
+                if (index < 0) {
+                    return;
+                }
+                children[index].refresh(key, position + 1, ranking);
+            }
+            refreshTop(ranking);
+        }
+
+        // Лучшие вещи поддерева есть среди собственных вещей узла и топов его детей
+        private void refreshTop(Comparator<Long> ranking) {
+            List<Long> candidates = new ArrayList<>(itemCount + childCount * MAX_SUGGESTIONS);
+            for (int i = 0; i < itemCount; i++) {
+                candidates.add(itemIds[i]);
+            }
+            for (int i = 0; i < childCount; i++) {
+                for (int j = 0; j < children[i].topCount; j++) {
+                    candidates.add(children[i].top[j]);
+                }
+            }
+            candidates.sort(ranking);
+            long[] best = new long[Math.min(candidates.size(), MAX_SUGGESTIONS)];
+            int count = 0;
+            for (int i = 0; i < candidates.size() && count < best.length; i++) {
+                // Вещь может попасть в поддерево несколькими ключами; после сортировки повторы стоят рядом
+                if (count == 0 || best[count - 1] != candidates.get(i)) {
+                    best[count++] = candidates.get(i);
+                }
+            }
+            top = best;
+            topCount = count;
+        }
+    }
+}
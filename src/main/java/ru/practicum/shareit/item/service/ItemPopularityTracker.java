@@ -0,0 +1,167 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.dto.ItemBookingCount;
+import ru.practicum.shareit.item.repository.ItemStatsRepository;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счётчики бронирований по вещам. На горячем пути только инкремент LongAdder; раз в flush-ms
+ * накопленные прибавки атомарно добавляются в общую таблицу item_stats, а топ и число бронирований
+ * перечитываются из неё, поэтому все узлы видят бронирования друг друга.
+ * В памяти держатся только ещё не записанные прибавки и готовый топ.
+ */
+@Slf4j
+@Component
+public class ItemPopularityTracker {
+    private static final int CANDIDATE_FACTOR = 2;
+    // За 10 периодов полураспада оценка падает более чем в 1000 раз: такие вещи в топ не попадут
+    private static final int HORIZON_HALF_LIVES = 10;
+
+    private final ItemStatsRepository itemStatsRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int topSize;
+    private final long syncMarginMillis;
+
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+    private volatile Map<PopularityWindow, List<RankedItem>> top = Map.of();
+    private long lastSync = System.currentTimeMillis();
+
+    public ItemPopularityTracker(ItemStatsRepository itemStatsRepository,
+                                 JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 ApplicationEventPublisher eventPublisher,
+                                 @Value("${shareit.popularity.top-size:50}") int topSize,
+                                 @Value("${shareit.popularity.sync-margin-ms:60000}") long syncMarginMillis) {
+        this.itemStatsRepository = itemStatsRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.topSize = topSize;
+        this.syncMarginMillis = syncMarginMillis;
+    }
+
+    // Только после коммита: откаченное бронирование не должно попасть в статистику.
+    // compute, а не computeIfAbsent: иначе инкремент мог бы уйти в счётчик, который flush() уже удалил
+    @TransactionalEventListener
+    public void onItemBooked(ItemBooked event) {
+        pending.compute(event.itemId(), (id, adder) -> {
+            LongAdder counter = adder == null ? new LongAdder() : adder;
+            counter.increment();
+            return counter;
+        });
+    }
+
+    // Кандидатов в топе больше, чем topSize: часть из них может оказаться удалёнными вещами
+    public int topSize() {
+        return topSize;
+    }
+
+    public long bookingCount(Long itemId) {
+        return itemStatsRepository.findTotalBookingsByItemId(itemId).orElse(0L);
+    }
+
+    public Map<Long, Long> bookingCounts() {
+        Map<Long, Long> counts = new HashMap<>();
+        itemStatsRepository.findAllBookingCounts().forEach(count -> counts.put(count.itemId(), count.totalBookings()));
+        return counts;
+    }
+
+    public List<RankedItem> top(PopularityWindow window) {
+        return top.getOrDefault(window, List.of());
+    }
+
+    // Полный сброс статистики, например после восстановления снимка с другими вещами под теми же id
+    public synchronized void reset() {
+        itemStatsRepository.deleteAllInBatch();
+        pending.clear();
+        lastSync = System.currentTimeMillis();
+        rebuildTop(lastSync);
+        log.info("Статистика популярности сброшена");
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.popularity.flush-ms:10000}")
+    public synchronized void flush() {
+        long now = System.currentTimeMillis();
+        // Сначала читается сумма, и вычитается только записанное: инкременты, пришедшие во время записи, не теряются
+        try {
+            pending.forEach((itemId, adder) -> {
+                long delta = adder.sum();
+                if (delta == 0) {
+                    // Вещь не бронировали с прошлого сброса: счётчик убирается, чтобы карта не росла бесконечно
+                    pending.computeIfPresent(itemId, (id, idle) -> idle.sum() == 0 ? null : idle);
+                    return;
+                }
+                addBookings(itemId, delta, now);
+                adder.add(-delta);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Не удалось записать статистику популярности, повтор при следующем сбросе: {}", e.getMessage());
+        }
+        syncBookingCounts(now);
+        rebuildTop(now);
+    }
+
+    private void addBookings(Long itemId, long delta, long now) {
+        if (update(itemId, delta, now) > 0) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> itemStatsRepository.insertBookings(itemId, delta, now));
+        } catch (DataIntegrityViolationException e) {
+            // Строку успел создать другой узел
+            update(itemId, delta, now);
+        }
+    }
+
+    private int update(Long itemId, long delta, long now) {
+        Integer updated = transactionTemplate.execute(status -> itemStatsRepository.addBookings(itemId, delta, now,
+                PopularityWindow.DAY.halfLifeMillis(), PopularityWindow.WEEK.halfLifeMillis(),
+                PopularityWindow.MONTH.halfLifeMillis()));
+        return updated == null ? 0 : updated;
+    }
+
+    // Числа бронирований, изменённые любым узлом с прошлого раза; запас покрывает расхождение часов узлов
+    private void syncBookingCounts(long now) {
+        List<ItemBookingCount> changed = itemStatsRepository.findBookingCountsUpdatedSince(lastSync - syncMarginMillis);
+        lastSync = now;
+        if (!changed.isEmpty()) {
+            Map<Long, Long> bookingCounts = new HashMap<>();
+            changed.forEach(count -> bookingCounts.put(count.itemId(), count.totalBookings()));
+            eventPublisher.publishEvent(new ItemPopularityUpdated(bookingCounts));
+        }
+    }
+
+    private void rebuildTop(long now) {
+        int candidates = topSize * CANDIDATE_FACTOR;
+        Map<PopularityWindow, List<RankedItem>> result = new EnumMap<>(PopularityWindow.class);
+        for (PopularityWindow window : PopularityWindow.values()) {
+            long halfLife = window.halfLifeMillis();
+            result.put(window, jdbcTemplate.query("select item_id, " + window.column()
+                            + " * power(0.5, cast(greatest(? - updated_millis, 0) as double precision) / ?) as score "
+                            + "from item_stats where updated_millis > ? order by score desc, item_id limit ?",
+                    (rs, rowNum) -> new RankedItem(rs.getLong(1), rs.getDouble(2)),
+                    now, halfLife, now - HORIZON_HALF_LIVES * halfLife, candidates));
+        }
+        top = result;
+    }
+
+    public record RankedItem(Long itemId, double score) {
+    }
+}
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.item.service;
+
+import java.util.Map;
+
+/**
+ * Новые значения числа бронирований вещей после пересчёта статистики популярности.
+ */
+public record ItemPopularityUpdated(Map<Long, Long> bookingCounts) {
+}
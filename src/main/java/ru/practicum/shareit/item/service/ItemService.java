@@ -1,18 +1,42 @@
 package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.comment.dto.CommentDto;
+import ru.practicum.shareit.comment.dto.CommentPageDto;
+import ru.practicum.shareit.common.dto.MultiGetResult;
+import ru.practicum.shareit.item.dto.ItemCalendarDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoWithDate;
+import ru.practicum.shareit.item.dto.ItemPopularityDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.limit.Priority;
+import ru.practicum.shareit.limit.ShedPriority;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
+    @ShedPriority(Priority.BULK)
     List<ItemDto> getAllUsersItems(Long userId);
 
+    @ShedPriority(Priority.CRITICAL)
     ItemDtoWithDate getItemById(Long itemId, Long userId);
 
+    @ShedPriority(Priority.BULK)
+    List<MultiGetResult<ItemDtoWithDate>> getItemsByIds(List<Long> itemIds);
+
+    ItemCalendarDto getItemCalendar(Long itemId, LocalDateTime from, LocalDateTime to);
+
+    @ShedPriority(Priority.BULK)
     List<ItemDto> getItemsByText(String text);
 
+    @ShedPriority(Priority.BULK)
+    List<ItemPopularityDto> getTopItems(PopularityWindow window);
+
+    @ShedPriority(Priority.BULK)
+    CommentPageDto getItemComments(Long itemId, String cursor, int limit);
+
+    List<ItemSuggestionDto> suggestItems(String prefix, int limit);
+
     ItemDto addItem(ItemDto itemDto, Long userId);
 
     ItemDto updateItem(ItemDto itemDto, Long itemId, Long userId);
@@ -1,30 +1,51 @@
 package ru.practicum.shareit.item.service;
 
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.entity.Booking;
 import ru.practicum.shareit.booking.entity.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDates;
+import ru.practicum.shareit.booking.dto.BookingPeriod;
+import ru.practicum.shareit.booking.repository.BookingArchiveRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.cache.CacheInvalidation;
+import ru.practicum.shareit.cache.CacheRegion;
+import ru.practicum.shareit.cache.SingleFlight;
 import ru.practicum.shareit.comment.dto.CommentDto;
-import ru.practicum.shareit.comment.entity.Comment;
-import ru.practicum.shareit.comment.mapper.CommentMapper;
-import ru.practicum.shareit.comment.repository.CommentRepository;
+import ru.practicum.shareit.comment.dto.CommentPageDto;
+import ru.practicum.shareit.comment.dto.CommentPreview;
+import ru.practicum.shareit.common.dto.MultiGetResult;
+import ru.practicum.shareit.comment.dto.PendingComment;
+import ru.practicum.shareit.comment.service.CommentFeed;
+import ru.practicum.shareit.comment.service.CommentWriter;
 import ru.practicum.shareit.exception.NotAvailableException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.CalendarIntervalDto;
+import ru.practicum.shareit.item.dto.ItemCalendarDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoWithDate;
+import ru.practicum.shareit.item.dto.ItemPopularityDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.item.dto.ItemView;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.entity.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
-import ru.practicum.shareit.user.entity.User;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -32,65 +53,150 @@ import java.util.Optional;
 public class ItemServiceImpl implements ItemService {
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
-    private final CommentRepository commentRepository;
     private final BookingRepository bookingRepository;
+    private final BookingArchiveRepository bookingArchiveRepository;
+    private final ItemPopularityTracker itemPopularityTracker;
+    private final ItemNameIndex itemNameIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CommentWriter commentWriter;
+    private final CommentFeed commentFeed;
+    private final ItemCalendarCache itemCalendarCache;
+    private final SingleFlight singleFlight;
 
     @Override
+    @Transactional(readOnly = true)
     public List<ItemDto> getAllUsersItems(Long userId) {
-        return itemRepository.findAllByOwnerId(userId).stream()
-                .map(ItemMapper::entityItemToDto)
-                .toList();
+        return toDtos(itemRepository.findViewsByOwnerId(userId));
     }
 
+    // Без транзакции на весь метод: ожидающие общей загрузки не должны держать соединения
     @Override
     public ItemDtoWithDate getItemById(Long itemId, Long userId) {
-        Item itemEntity = itemRepository.findById(itemId)
+        return singleFlight.load("item", itemId, () -> loadItemWithDates(itemId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<MultiGetResult<ItemDtoWithDate>> getItemsByIds(List<Long> itemIds) {
+        MultiGetResult.checkIds(itemIds);
+        if (itemIds.isEmpty()) return List.of();
+        Set<Long> ids = Set.copyOf(itemIds);
+        List<ItemView> items = itemRepository.findViewsByIdIn(ids);
+        Map<Long, CommentPreview> comments = commentFeed.previews(ids);
+        Map<Long, BookingDates> dates = bookingRepository
+                .findDatesByItemIdIn(ids, LocalDateTime.now(), BookingStatus.APPROVED).stream()
+                .collect(Collectors.toMap(BookingDates::itemId, Function.identity()));
+        Map<Long, ItemDtoWithDate> found = new HashMap<>();
+        for (ItemView item : items) {
+            BookingDates itemDates = dates.get(item.id());
+            found.put(item.id(), ItemMapper.viewToDtoWithDate(
+                    item,
+                    comments.getOrDefault(item.id(), CommentPreview.EMPTY),
+                    itemDates == null ? null : itemDates.lastEnd(),
+                    itemDates == null ? null : itemDates.nextStart()));
+        }
+        return MultiGetResult.inOrder(itemIds, found);
+    }
+
+    private ItemDtoWithDate loadItemWithDates(Long itemId) {
+        ItemView item = itemRepository.findViewById(itemId)
                 .orElseThrow(() -> new NotFoundException("Вещь с данным ID не найдена!"));
         Optional<Booking> lastBooking = bookingRepository.findFirstByItemIdAndStartBeforeAndStatusOrderByEndDesc(
                 itemId, LocalDateTime.now(), BookingStatus.APPROVED);
         Optional<Booking> nextBooking = bookingRepository.findFirstByItemIdAndStartAfterAndStatusOrderByStartAsc(
                 itemId, LocalDateTime.now(), BookingStatus.APPROVED);
-        return ItemMapper.entityItemToDtoWithDate(
-                itemEntity,
+        return ItemMapper.viewToDtoWithDate(
+                item,
+                commentFeed.preview(itemId),
                 lastBooking.map(Booking::getEnd).orElse(null),
                 nextBooking.map(Booking::getStart).orElse(null)
         );
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public ItemCalendarDto getItemCalendar(Long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Начало периода должно быть раньше его окончания!");
+        }
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException(String.format("Вещи с ID = %d не существует!", itemId));
+        }
+        return itemCalendarCache.get(itemId, from, to, () -> new ItemCalendarDto(itemId, from, to, mergeIntervals(
+                bookingRepository.findPeriodsOverlapping(itemId, BookingStatus.APPROVED, from, to), from, to)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<ItemDto> getItemsByText(String text) {
         if (text.isEmpty()) return new ArrayList<>();
-        return itemRepository.findItemsByNameIgnoreCase(text).stream()
-                .filter(Item::getAvailable)
-                .map(ItemMapper::entityItemToDto)
+        return toDtos(itemRepository.findAvailableViewsByName(text));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemPopularityDto> getTopItems(PopularityWindow window) {
+        List<ItemPopularityTracker.RankedItem> ranking = itemPopularityTracker.top(window);
+        if (ranking.isEmpty()) return List.of();
+        Map<Long, ItemView> items = itemRepository.findViewsByIdIn(
+                        ranking.stream().map(ItemPopularityTracker.RankedItem::itemId).toList()).stream()
+                .collect(Collectors.toMap(ItemView::id, Function.identity()));
+        return ranking.stream()
+                .filter(ranked -> items.containsKey(ranked.itemId()))
+                .limit(itemPopularityTracker.topSize())
+                .map(ranked -> new ItemPopularityDto(ranked.itemId(), items.get(ranked.itemId()).name(),
+                        ranked.score()))
                 .toList();
     }
 
+    @Override
+    public List<ItemSuggestionDto> suggestItems(String prefix, int limit) {
+        return itemNameIndex.suggest(prefix, Math.min(limit, ItemNameIndex.MAX_SUGGESTIONS));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CommentPageDto getItemComments(Long itemId, String cursor, int limit) {
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException(String.format("Вещи с ID = %d не существует!", itemId));
+        }
+        return commentFeed.page(itemId, cursor, limit);
+    }
+
     @Override
     @Transactional
     public ItemDto addItem(ItemDto itemDto, Long userId) {
         hasUser(userId);
-        return ItemMapper.entityItemToDto(itemRepository.save(ItemMapper.dtoToEntityItem(itemDto, userId)));
+        Item item = itemRepository.save(ItemMapper.dtoToEntityItem(itemDto, userId));
+        eventPublisher.publishEvent(new CacheInvalidation(CacheRegion.ITEM, item.getId()));
+        return ItemMapper.entityItemToDto(item, CommentPreview.EMPTY);
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public CommentDto addComment(CommentDto commentDto, Long itemId, Long userId) {
-        Item item = itemRepository.findById(itemId).orElseThrow(
-                () -> new NotFoundException(String.format("Вещи с ID = %d не существует!", itemId)));
-        User user = userRepository.findById(userId).orElseThrow(
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException(String.format("Вещи с ID = %d не существует!", itemId));
+        }
+        UserDto user = userRepository.findDtoById(userId).orElseThrow(
                 () -> new NotFoundException(String.format("Пользователя с ID = %d - не существует!", userId)));
-        Booking booking = bookingRepository.findBookingsByItemIdAndBookerId(itemId, userId).orElseThrow(
-                () -> new NotFoundException(String.format(
-                        "Бронирование с Item ID = %d и Booker Id = %d - не найдено!", itemId, userId)));
-        if (booking.getEnd().isBefore(LocalDateTime.now())) {
-            return CommentMapper.entityItemToDto(commentRepository.save(Comment.builder()
-                    .withUser(user)
-                    .withItem(item)
-                    .withText(commentDto.getText())
-                    .withCreated(LocalDateTime.now())
-                    .build()
-            ));
+        // Достаточно любого закончившегося бронирования; бронирования из архива заведомо закончились
+        boolean ended = bookingRepository.existsByItemIdAndBookerIdAndEndBefore(itemId, userId, LocalDateTime.now())
+                || bookingArchiveRepository.existsByItemIdAndBookerId(itemId, userId);
+        if (!ended && !bookingRepository.existsByItemIdAndBookerId(itemId, userId)) {
+            throw new NotFoundException(String.format(
+                    "Бронирование с Item ID = %d и Booker Id = %d - не найдено!", itemId, userId));
+        }
+        if (ended) {
+            PendingComment comment = new PendingComment(commentWriter.nextId(),
+                    itemId, userId, user.getName(), commentDto.getText(), LocalDateTime.now());
+            commentWriter.submit(comment);
+            return CommentDto.builder()
+                    .withId(comment.id())
+                    .withAuthorName(comment.authorName())
+                    .withText(comment.text())
+                    .withCreated(comment.created())
+                    .build();
         } else {
             throw new NotAvailableException("Комментарий нельзя поставить, так как бронирование вещи не окончено!");
         }
@@ -114,16 +220,61 @@ public class ItemServiceImpl implements ItemService {
         if (available != null) {
             itemEntity.setAvailable(available);
         }
-        return ItemMapper.entityItemToDto(itemRepository.save(itemEntity));
+        Item item = itemRepository.save(itemEntity);
+        eventPublisher.publishEvent(new CacheInvalidation(CacheRegion.ITEM, itemId));
+        return ItemMapper.entityItemToDto(item, commentFeed.preview(itemId));
     }
 
     @Override
+    @Transactional
     public void deleteById(long itemId) {
-        itemRepository.deleteById(itemId);
+        itemRepository.markDeleted(List.of(itemId));
+        eventPublisher.publishEvent(new CacheInvalidation(CacheRegion.ITEM, itemId));
     }
 
+    private List<ItemDto> toDtos(List<ItemView> items) {
+        if (items.isEmpty()) return List.of();
+        Map<Long, CommentPreview> comments = commentFeed.previews(items.stream().map(ItemView::id).toList());
+        return items.stream()
+                .map(item -> ItemMapper.viewToDto(item, comments.getOrDefault(item.id(), CommentPreview.EMPTY)))
+                .toList();
+    }
+
+    // Бронирования отсортированы по началу, поэтому достаточно одного прохода с курсором
+    private static List<CalendarIntervalDto> mergeIntervals(List<BookingPeriod> periods,
+                                                            LocalDateTime from, LocalDateTime to) {
+        List<CalendarIntervalDto> intervals = new ArrayList<>();
+        LocalDateTime cursor = from;
+        LocalDateTime busyStart = null;
+        for (BookingPeriod period : periods) {
+            LocalDateTime start = period.start().isBefore(from) ? from : period.start();
+            LocalDateTime end = period.end().isAfter(to) ? to : period.end();
+            if (start.isAfter(cursor)) {
+                if (busyStart != null) {
+                    intervals.add(new CalendarIntervalDto(busyStart, cursor, true));
+                }
+                intervals.add(new CalendarIntervalDto(cursor, start, false));
+                busyStart = start;
+            } else if (busyStart == null) {
+                busyStart = cursor;
+            }
+            if (end.isAfter(cursor)) {
+                cursor = end;
+            }
+        }
+        if (busyStart != null) {
+            intervals.add(new CalendarIntervalDto(busyStart, cursor, true));
+        }
+        if (cursor.isBefore(to)) {
+            intervals.add(new CalendarIntervalDto(cursor, to, false));
+        }
+        return intervals;
+    }
+
+    // Вызывается из транзакций записи: удалённый пользователь не должен пройти по устаревшим данным
     private void hasUser(long userId) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователя с ID %d - не существует!".formatted(userId)));
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException("Пользователя с ID %d - не существует!".formatted(userId));
+        }
     }
 }
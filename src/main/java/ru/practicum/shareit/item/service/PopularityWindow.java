@@ -0,0 +1,29 @@
+package ru.practicum.shareit.item.service;
+
+import java.time.Duration;
+
+/**
+ * Окно популярности: оценка затухает экспоненциально с периодом полураспада, равным окну.
+ * Оценка окна хранится в своей колонке item_stats на момент updated_millis.
+ */
+public enum PopularityWindow {
+    DAY(Duration.ofDays(1), "day_score"),
+    WEEK(Duration.ofDays(7), "week_score"),
+    MONTH(Duration.ofDays(30), "month_score");
+
+    private final Duration halfLife;
+    private final String column;
+
+    PopularityWindow(Duration halfLife, String column) {
+        this.halfLife = halfLife;
+        this.column = column;
+    }
+
+    long halfLifeMillis() {
+        return halfLife.toMillis();
+    }
+
+    String column() {
+        return column;
+    }
+}
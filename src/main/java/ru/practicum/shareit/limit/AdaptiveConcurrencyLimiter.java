@@ -0,0 +1,107 @@
+package ru.practicum.shareit.limit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Адаптивный лимит одновременных вызовов по градиенту задержки (в духе Gradient2).
+ * Короткая и длинная скользящие средние задержки сравниваются: пока короткая не выше длинной,
+ * лимит растёт на величину допустимой очереди; когда задержка растёт — лимит сжимается пропорционально.
+ * Средние обновляются выборочно: если пересчёт уже идёт в другом потоке, замер пропускается,
+ * и освобождение слота не ждёт общую блокировку.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.limiter.enabled", havingValue = "true", matchIfMissing = true)
+public class AdaptiveConcurrencyLimiter {
+    private static final double SHORT_WINDOW = 10;
+    private static final double LONG_WINDOW = 600;
+    private static final double SMOOTHING = 0.2;
+    private static final double TOLERANCE = 1.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<Priority, Counter> shed = new EnumMap<>(Priority.class);
+    private final ReentrantLock updateLock = new ReentrantLock();
+    private volatile double limit;
+    // Изменяются только под updateLock
+    private double shortRtt;
+    private double longRtt;
+
+    public AdaptiveConcurrencyLimiter(MeterRegistry meterRegistry,
+                                      @Value("${shareit.limiter.initial-limit:20}") int initialLimit,
+                                      @Value("${shareit.limiter.min-limit:4}") int minLimit,
+                                      @Value("${shareit.limiter.max-limit:200}") int maxLimit) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        for (Priority priority : Priority.values()) {
+            shed.put(priority, meterRegistry.counter("shareit.limiter.shed", "priority", priority.name()));
+        }
+        meterRegistry.gauge("shareit.limiter.limit", this, limiter -> limiter.limit);
+        meterRegistry.gauge("shareit.limiter.inflight", inFlight);
+    }
+
+    /**
+     * Возвращает число выполняющихся вызовов на момент входа или -1, если вызов нужно отбросить.
+     */
+    public int tryAcquire(Priority priority) {
+        int allowed = Math.max(1, (int) (limit * priority.share()));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                shed.get(priority).increment();
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    public void release(long rttNanos, int inFlightAtStart) {
+        inFlight.decrementAndGet();
+        if (updateLock.tryLock()) {
+            try {
+                update(rttNanos, inFlightAtStart);
+            } finally {
+                updateLock.unlock();
+            }
+        }
+    }
+
+    public int limit() {
+        return (int) limit;
+    }
+
+    private void update(long rttNanos, int inFlightAtStart) {
+        if (shortRtt == 0) {
+            shortRtt = rttNanos;
+            longRtt = rttNanos;
+            return;
+        }
+        shortRtt += (rttNanos - shortRtt) * 2 / (SHORT_WINDOW + 1);
+        longRtt += (rttNanos - longRtt) * 2 / (LONG_WINDOW + 1);
+        // После долгой перегрузки длинное среднее подтягивается к текущему, иначе лимит не восстановится
+        if (longRtt > shortRtt * 2) {
+            longRtt *= 0.95;
+        }
+        // При малой загрузке задержка ничего не говорит о пределе, лимит не растёт впустую
+        if (inFlightAtStart < limit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+        double queueSize = Math.sqrt(limit);
+        double newLimit = limit * gradient + queueSize;
+        newLimit = limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+}
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.limit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.exception.ServiceOverloadedException;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Пропускает вызовы сервисов вещей, бронирований и пользователей через адаптивный лимит.
+ * Аспект стоит снаружи транзакций, поэтому отброшенный вызов не занимает соединение с БД.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "shareit.limiter.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitAspect {
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final Map<Method, Priority> priorities = new ConcurrentHashMap<>();
+
+    public ConcurrencyLimitAspect(AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Around("execution(* ru.practicum.shareit.item.service.ItemService.*(..))"
+            + " || execution(* ru.practicum.shareit.booking.service.BookingService.*(..))"
+            + " || execution(* ru.practicum.shareit.user.service.UserService.*(..))")
+    public Object limit(ProceedingJoinPoint joinPoint) throws Throwable {
+        Priority priority = priorities.computeIfAbsent(((MethodSignature) joinPoint.getSignature()).getMethod(),
+                method -> priorityOf(method, joinPoint.getTarget().getClass()));
+        int inFlight = limiter.tryAcquire(priority);
+        if (inFlight < 0) {
+            throw new ServiceOverloadedException("Сервис перегружен, повторите запрос позже");
+        }
+        long started = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            limiter.release(System.nanoTime() - started, inFlight);
+        }
+    }
+
+    private static Priority priorityOf(Method method, Class<?> targetClass) {
+        ShedPriority annotation = AnnotatedElementUtils.findMergedAnnotation(
+                AopUtils.getMostSpecificMethod(method, targetClass), ShedPriority.class);
+        return annotation == null ? Priority.NORMAL : annotation.value();
+    }
+}
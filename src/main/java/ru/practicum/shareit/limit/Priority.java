@@ -0,0 +1,21 @@
+package ru.practicum.shareit.limit;
+
+/**
+ * Класс приоритета вызова сервиса. Вызов допускается, пока число выполняющихся вызовов меньше
+ * доли текущего лимита, поэтому при росте нагрузки первыми отбрасываются массовые выборки.
+ */
+public enum Priority {
+    CRITICAL(1.0),
+    NORMAL(0.9),
+    BULK(0.7);
+
+    private final double share;
+
+    Priority(double share) {
+        this.share = share;
+    }
+
+    public double share() {
+        return share;
+    }
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.limit;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Приоритет метода сервиса для ограничителя нагрузки. Методы без аннотации имеют приоритет NORMAL.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ShedPriority {
+    Priority value();
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.trace;
+
+import java.time.Instant;
+
+public record RequestTrace(String method, String uri, int status, Instant startedAt, long durationMicros,
+                           TraceSpan root) {
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Кольцевой буфер последних медленных трасс: новая запись затирает самую старую.
+ */
+public class SlowTraceBuffer {
+    private final AtomicReferenceArray<RequestTrace> traces;
+    private final AtomicLong cursor = new AtomicLong();
+
+    public SlowTraceBuffer(int capacity) {
+        this.traces = new AtomicReferenceArray<>(capacity);
+    }
+
+    public void add(RequestTrace trace) {
+        traces.set((int) (cursor.getAndIncrement() % traces.length()), trace);
+    }
+
+    public List<RequestTrace> snapshot() {
+        List<RequestTrace> result = new ArrayList<>(traces.length());
+        long last = cursor.get();
+        for (long i = last - 1; i >= Math.max(0, last - traces.length()); i--) {
+            RequestTrace trace = traces.get((int) (i % traces.length()));
+            if (trace != null) {
+                result.add(trace);
+            }
+        }
+        return result;
+    }
+}
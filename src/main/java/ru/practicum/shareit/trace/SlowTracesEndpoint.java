@@ -0,0 +1,20 @@
+package ru.practicum.shareit.trace;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.List;
+
+@Endpoint(id = "slowtraces")
+public class SlowTracesEndpoint {
+    private final SlowTraceBuffer buffer;
+
+    public SlowTracesEndpoint(SlowTraceBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    @ReadOperation
+    public List<RequestTrace> slowTraces() {
+        return buffer.snapshot();
+    }
+}
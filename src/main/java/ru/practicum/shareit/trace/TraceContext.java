@@ -0,0 +1,50 @@
+package ru.practicum.shareit.trace;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Стек открытых спанов текущего потока. Пока запрос не попал в выборку, enter() возвращает null
+ * и ничего не записывается.
+ */
+final class TraceContext {
+    private static final ThreadLocal<Deque<TraceSpan>> SPANS = new ThreadLocal<>();
+
+    private TraceContext() {
+    }
+
+    static TraceSpan begin(String name) {
+        TraceSpan root = new TraceSpan(name, System.nanoTime());
+        Deque<TraceSpan> spans = new ArrayDeque<>();
+        spans.push(root);
+        SPANS.set(spans);
+        return root;
+    }
+
+    static TraceSpan enter(String name) {
+        Deque<TraceSpan> spans = SPANS.get();
+        if (spans == null || spans.isEmpty()) {
+            return null;
+        }
+        TraceSpan span = new TraceSpan(name, System.nanoTime());
+        spans.peek().getChildren().add(span);
+        spans.push(span);
+        return span;
+    }
+
+    static void exit(TraceSpan span) {
+        if (span == null) {
+            return;
+        }
+        span.finish(System.nanoTime());
+        Deque<TraceSpan> spans = SPANS.get();
+        if (spans != null && spans.peek() == span) {
+            spans.pop();
+        }
+    }
+
+    static void end(TraceSpan root) {
+        root.finish(System.nanoTime());
+        SPANS.remove();
+    }
+}
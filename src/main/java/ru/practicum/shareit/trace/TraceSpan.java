@@ -0,0 +1,23 @@
+package ru.practicum.shareit.trace;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+public class TraceSpan {
+    private final String name;
+    private final long startNanos;
+    private long durationMicros;
+    private final List<TraceSpan> children = new ArrayList<>();
+
+    TraceSpan(String name, long startNanos) {
+        this.name = name;
+        this.startNanos = startNanos;
+    }
+
+    void finish(long endNanos) {
+        durationMicros = (endNanos - startNanos) / 1_000;
+    }
+}
@@ -0,0 +1,62 @@
+package ru.practicum.shareit.trace;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * Выборочная трассировка запросов: контроллер, сервис, репозиторий, каждый SQL-запрос и сериализация.
+ * Включается свойством shareit.tracing.enabled, медленные трассы доступны через /actuator/slowtraces.
+ */
+@Configuration
+@ConditionalOnProperty(name = "shareit.tracing.enabled", havingValue = "true")
+public class TracingConfig {
+
+    @Bean
+    public SlowTraceBuffer slowTraceBuffer(@Value("${shareit.tracing.buffer-size:100}") int bufferSize) {
+        return new SlowTraceBuffer(bufferSize);
+    }
+
+    @Bean
+    public FilterRegistrationBean<TracingFilter> tracingFilter(
+            SlowTraceBuffer buffer,
+            @Value("${shareit.tracing.sample-rate:0.1}") double sampleRate,
+            @Value("${shareit.tracing.slow-threshold-ms:200}") long slowThresholdMillis) {
+        FilterRegistrationBean<TracingFilter> registration =
+                new FilterRegistrationBean<>(new TracingFilter(buffer, sampleRate, slowThresholdMillis));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    public TracingAspect tracingAspect() {
+        return new TracingAspect();
+    }
+
+    @Bean
+    public static BeanPostProcessor tracingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? TracingDataSource.wrap(dataSource) : bean;
+            }
+        };
+    }
+
+    @Bean
+    public TracingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new TracingJackson2HttpMessageConverter(objectMapper);
+    }
+
+    @Bean
+    public SlowTracesEndpoint slowTracesEndpoint(SlowTraceBuffer buffer) {
+        return new SlowTracesEndpoint(buffer);
+    }
+}
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.trace;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class TracingFilter extends OncePerRequestFilter {
+    private final SlowTraceBuffer buffer;
+    private final double sampleRate;
+    private final long slowThresholdMicros;
+
+    public TracingFilter(SlowTraceBuffer buffer, double sampleRate, long slowThresholdMillis) {
+        this.buffer = buffer;
+        this.sampleRate = sampleRate;
+        this.slowThresholdMicros = slowThresholdMillis * 1_000;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            chain.doFilter(request, response);
+            return;
+        }
+        Instant startedAt = Instant.now();
+        TraceSpan root = TraceContext.begin(request.getMethod() + " " + request.getRequestURI());
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            TraceContext.end(root);
+            if (root.getDurationMicros() >= slowThresholdMicros) {
+                buffer.add(new RequestTrace(request.getMethod(), request.getRequestURI(), response.getStatus(),
+                        startedAt, root.getDurationMicros(), root));
+            }
+        }
+    }
+}
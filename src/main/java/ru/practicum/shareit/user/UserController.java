@@ -4,6 +4,7 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.common.dto.MultiGetResult;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
@@ -24,6 +25,11 @@ public class UserController {
         return userService.getAllUsers();
     }
 
+    @GetMapping(params = "ids")
+    public List<MultiGetResult<UserDto>> getByIds(@RequestParam List<Long> ids) {
+        return userService.getByIds(ids);
+    }
+
     @GetMapping("/{id}")
     public UserDto getById(@PathVariable Long id) {
         return userService.getById(id);
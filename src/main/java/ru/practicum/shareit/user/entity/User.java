@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import org.hibernate.annotations.SQLRestriction;
 import org.hibernate.validator.constraints.Length;
 
 /**
@@ -17,6 +18,7 @@ import org.hibernate.validator.constraints.Length;
 @Setter
 @ToString
 @Table(name = "users")
+@SQLRestriction("deleted = false")
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -27,6 +29,8 @@ public class User {
     @Email
     @NotNull
     private String email;
+    @Column(nullable = false)
+    private boolean deleted;
 
     public User() {
     }
@@ -1,11 +1,43 @@
 package ru.practicum.shareit.user.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.entity.User;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
-    boolean existsUserByEmail(String email);
-}
\ No newline at end of file
+    // Нативный запрос не фильтрует удалённых: их email занят уникальным индексом, пока строку не вычистят
+    @Query(value = "select count(*) > 0 from users where email = ?1", nativeQuery = true)
+    boolean existsAnyByEmail(String email);
+
+    @Query("select new ru.practicum.shareit.user.dto.UserDto(u.id, u.name, u.email) from User u")
+    List<UserDto> findAllDtos();
+
+    @Query("select new ru.practicum.shareit.user.dto.UserDto(u.id, u.name, u.email) from User u where u.id = ?1")
+    Optional<UserDto> findDtoById(Long id);
+
+    @Query("select new ru.practicum.shareit.user.dto.UserDto(u.id, u.name, u.email) from User u where u.id in ?1")
+    List<UserDto> findDtosByIdIn(Collection<Long> ids);
+
+    @Modifying
+    @Query("update User u set u.deleted = true where u.id = ?1 and u.deleted = false")
+    int markDeleted(Long id);
+
+    @Query(value = "select id from users where deleted = true limit ?1", nativeQuery = true)
+    List<Long> findDeletedIds(int limit);
+
+    @Query(value = "select count(*) from users where deleted = true", nativeQuery = true)
+    long countDeleted();
+
+    @Modifying
+    @Query(value = "delete from users where id = ?1 and deleted = true", nativeQuery = true)
+    int purgeDeleted(Long id);
+}
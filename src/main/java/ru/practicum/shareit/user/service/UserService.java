@@ -1,14 +1,22 @@
 package ru.practicum.shareit.user.service;
 
+import ru.practicum.shareit.common.dto.MultiGetResult;
+import ru.practicum.shareit.limit.Priority;
+import ru.practicum.shareit.limit.ShedPriority;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.util.List;
 
 public interface UserService {
+    @ShedPriority(Priority.BULK)
     List<UserDto> getAllUsers();
 
+    @ShedPriority(Priority.CRITICAL)
     UserDto getById(long userId);
 
+    @ShedPriority(Priority.BULK)
+    List<MultiGetResult<UserDto>> getByIds(List<Long> userIds);
+
     UserDto addUser(UserDto userDto);
 
     UserDto updateUser(UserDto userDto, Long userId);
@@ -2,36 +2,57 @@ package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.cache.CacheInvalidation;
+import ru.practicum.shareit.cache.CacheRegion;
+import ru.practicum.shareit.cache.SingleFlight;
+import ru.practicum.shareit.common.dto.MultiGetResult;
 import ru.practicum.shareit.exception.ExistException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.entity.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SingleFlight singleFlight;
 
     @Override
+    @Transactional(readOnly = true)
     public List<UserDto> getAllUsers() {
-        return userRepository.findAll()
-                .stream()
-                .map(UserMapper::entityUserToDto)
-                .toList();
+        return userRepository.findAllDtos();
     }
 
     @Override
     public UserDto getById(long userId) {
-        User userEntity = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь с ID %d - не существует!".formatted(userId)));
-        return UserMapper.entityUserToDto(userEntity);
+        return singleFlight.load("user", userId, () -> userRepository.findDtoById(userId)
+                .orElseThrow(() -> new NotFoundException("Пользователь с ID %d - не существует!".formatted(userId))));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<MultiGetResult<UserDto>> getByIds(List<Long> userIds) {
+        MultiGetResult.checkIds(userIds);
+        if (userIds.isEmpty()) return List.of();
+        Map<Long, UserDto> users = userRepository.findDtosByIdIn(Set.copyOf(userIds)).stream()
+                .collect(Collectors.toMap(UserDto::getId, Function.identity()));
+        return MultiGetResult.inOrder(userIds, users);
     }
 
     @Override
@@ -51,17 +72,23 @@ public class UserServiceImpl implements UserService {
         if (userDtoEmail != null)
             user.setEmail(userDto.getEmail());
         if (userDto.getName() != null) user.setName(userDto.getName());
-        return UserMapper.entityUserToDto(userRepository.save(user));
+        UserDto result = UserMapper.entityUserToDto(userRepository.save(user));
+        eventPublisher.publishEvent(new CacheInvalidation(CacheRegion.USER, userId));
+        return result;
     }
 
     @Override
+    @Transactional
     public void deleteById(long userId) {
-        userRepository.deleteById(userId);
+        if (userRepository.markDeleted(userId) > 0) {
+            itemRepository.subtractCommentsByUserId(userId);
+        }
+        eventPublisher.publishEvent(new CacheInvalidation(CacheRegion.USER, userId));
     }
 
     private void emailValidate(UserDto userDto) {
         if (userDto.getEmail() != null) {
-            boolean emailAlreadyUse = userRepository.existsUserByEmail(userDto.getEmail());
+            boolean emailAlreadyUse = userRepository.existsAnyByEmail(userDto.getEmail());
             if (emailAlreadyUse)
                 throw new ExistException("Пользователь с таким email %s - уже существует!".formatted(userDto.getEmail()));
         }
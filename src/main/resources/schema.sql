@@ -2,6 +2,7 @@ CREATE TABLE IF NOT EXISTS users (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
     name VARCHAR(255) NOT NULL,
     email VARCHAR(512) NOT NULL,
+    deleted BOOLEAN NOT NULL DEFAULT FALSE,
     CONSTRAINT pk_users_id PRIMARY KEY (id),
     CONSTRAINT uq_users_email UNIQUE (email)
 );
@@ -12,6 +13,8 @@ CREATE TABLE IF NOT EXISTS item (
     name VARCHAR(255) NOT NULL,
     description VARCHAR(255) NOT NULL,
     available BOOLEAN NOT NULL,
+    deleted BOOLEAN NOT NULL DEFAULT FALSE,
+    comment_count BIGINT NOT NULL DEFAULT 0,
     CONSTRAINT pk_item_id PRIMARY KEY (id),
     CONSTRAINT fk_item_owner FOREIGN KEY (owner_id)
     REFERENCES users (id)
@@ -44,4 +47,73 @@ CREATE TABLE IF NOT EXISTS comments (
     CONSTRAINT fk_comments_author FOREIGN KEY (author_id)
     REFERENCES users (id)
     ON DELETE CASCADE
-    );
\ No newline at end of file
+    );
+
+CREATE INDEX IF NOT EXISTS idx_comments_item_created ON comments (item_id, created);
+
+CREATE TABLE IF NOT EXISTS bookings_archive (
+    id BIGINT NOT NULL,
+    start_date TIMESTAMP NOT NULL,
+    end_date TIMESTAMP NOT NULL,
+    item_id BIGINT NOT NULL,
+    booker_id BIGINT NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    archived_at TIMESTAMP NOT NULL,
+    CONSTRAINT pk_bookings_archive_id PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_item_booker ON bookings_archive (item_id, booker_id);
+
+CREATE TABLE IF NOT EXISTS item_stats (
+    item_id BIGINT NOT NULL,
+    total_bookings BIGINT NOT NULL,
+    day_score DOUBLE PRECISION NOT NULL,
+    week_score DOUBLE PRECISION NOT NULL,
+    month_score DOUBLE PRECISION NOT NULL,
+    updated_millis BIGINT NOT NULL,
+    CONSTRAINT pk_item_stats_item_id PRIMARY KEY (item_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_item_stats_updated ON item_stats (updated_millis);
+
+CREATE TABLE IF NOT EXISTS cache_invalidations (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    node_id VARCHAR(64) NOT NULL,
+    region VARCHAR(32) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    CONSTRAINT pk_cache_invalidations_id PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS booking_outbox (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    booking_id BIGINT NOT NULL,
+    item_id BIGINT NOT NULL,
+    booker_id BIGINT NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    start_date TIMESTAMP NOT NULL,
+    end_date TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    CONSTRAINT pk_booking_outbox_id PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS booking_outbox_offsets (
+    sink VARCHAR(64) NOT NULL,
+    last_id BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    CONSTRAINT pk_booking_outbox_offsets_sink PRIMARY KEY (sink)
+);
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    scope VARCHAR(64) NOT NULL,
+    user_id BIGINT NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    fingerprint VARCHAR(64) NOT NULL,
+    response TEXT,
+    expires_at TIMESTAMP NOT NULL,
+    CONSTRAINT pk_idempotency_keys_id PRIMARY KEY (id),
+    CONSTRAINT uq_idempotency_keys_scope_user_key UNIQUE (scope, user_id, idempotency_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires ON idempotency_keys (expires_at);
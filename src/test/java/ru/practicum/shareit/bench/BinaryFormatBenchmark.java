@@ -0,0 +1,86 @@
+package ru.practicum.shareit.bench;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.entity.BookingStatus;
+import ru.practicum.shareit.comment.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Размер и время кодирования/декодирования большого списка бронирований в JSON, CBOR и Smile.
+ * Мапперы строятся так же, как в BinaryFormatConfig. Декодирование идёт в дерево узлов,
+ * как у клиента без общих с сервером классов. Запускается вручную: mvn test -Dtest=BinaryFormatBenchmark
+ */
+@Slf4j
+class BinaryFormatBenchmark {
+    private static final int BOOKINGS = 10_000;
+    private static final int WARMUP = 30;
+    private static final int MEASURED = 50;
+
+    @Test
+    void compareFormats() throws Exception {
+        List<BookingDto> bookings = bookings();
+        measure("JSON", new JsonFactory(), bookings);
+        measure("CBOR", new CBORFactory(), bookings);
+        measure("Smile", new SmileFactory(), bookings);
+    }
+
+    private void measure(String name, JsonFactory factory, List<BookingDto> bookings) throws Exception {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().factory(factory).build();
+        byte[] payload = mapper.writeValueAsBytes(bookings);
+        assertEquals(BOOKINGS, mapper.readTree(payload).size());
+        for (int i = 0; i < WARMUP; i++) {
+            mapper.readTree(mapper.writeValueAsBytes(bookings));
+        }
+        long encodeNanos = 0;
+        long decodeNanos = 0;
+        for (int i = 0; i < MEASURED; i++) {
+            long started = System.nanoTime();
+            byte[] encoded = mapper.writeValueAsBytes(bookings);
+            long encodedAt = System.nanoTime();
+            mapper.readTree(encoded);
+            decodeNanos += System.nanoTime() - encodedAt;
+            encodeNanos += encodedAt - started;
+        }
+        log.info("{}: {} КБ, кодирование {} мс, декодирование {} мс", name, payload.length / 1024,
+                millis(encodeNanos), millis(decodeNanos));
+    }
+
+    private static String millis(long totalNanos) {
+        return String.format("%.2f", totalNanos / 1e6 / MEASURED);
+    }
+
+    private static List<BookingDto> bookings() {
+        LocalDateTime now = LocalDateTime.of(2026, 1, 1, 12, 0);
+        List<BookingDto> bookings = new ArrayList<>(BOOKINGS);
+        for (long i = 1; i <= BOOKINGS; i++) {
+            List<CommentDto> comments = List.of(
+                    CommentDto.builder().withId(i * 2).withText("Отличная вещь, всё работает")
+                            .withAuthorName("Пользователь " + i % 100).withCreated(now.minusDays(i % 30)).build(),
+                    CommentDto.builder().withId(i * 2 + 1).withText("Вернул вовремя, спасибо")
+                            .withAuthorName("Пользователь " + (i + 7) % 100).withCreated(now.minusDays(i % 7)).build());
+            ItemDto item = ItemDto.builder().id(i % 500 + 1).name("Дрель ударная " + i % 500)
+                    .description("Дрель с набором свёрл по бетону и дереву").available(true)
+                    .commentCount(2L).comments(comments).build();
+            UserDto booker = UserDto.builder().id(i % 100 + 1).name("Пользователь " + i % 100)
+                    .email("user" + i % 100 + "@mail.ru").build();
+            bookings.add(BookingDto.builder().id(i).start(now.plusDays(i % 60).toString())
+                    .end(now.plusDays(i % 60 + 2).toString()).item(item)
+                    .status(BookingStatus.values()[(int) (i % 3)]).booker(booker).build());
+        }
+        return bookings;
+    }
+}
@@ -0,0 +1,98 @@
+package ru.practicum.shareit.bench;
+
+import com.sun.management.ThreadMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Байты, выделенные потоком запроса на одну выдачу списка. Запускается вручную:
+ * mvn test -Dtest=ListingAllocationBenchmark
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.url=jdbc:h2:mem:listing-bench",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.sql.init.mode=never",
+        "logging.level.org.springframework.orm.jpa=WARN",
+        "logging.level.org.springframework.transaction=WARN",
+        "logging.level.org.springframework.transaction.interceptor=WARN",
+        "logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN"})
+@AutoConfigureMockMvc
+class ListingAllocationBenchmark {
+    private static final String HEADER = "X-Sharer-User-Id";
+    private static final int BOOKERS = 20;
+    private static final int ITEMS = 100;
+    private static final int BOOKINGS_PER_BOOKER = 10;
+    private static final int WARMUP = 300;
+    private static final int MEASURED = 500;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    void allocatedBytesPerRequest() throws Exception {
+        seed();
+        measure("GET /users", get("/users"));
+        measure("GET /items (владелец, 100 вещей)", get("/items").header(HEADER, 1));
+        measure("GET /items/{id} (владелец)", get("/items/1").header(HEADER, 1));
+        measure("GET /bookings (10 бронирований)", get("/bookings").header(HEADER, 2));
+    }
+
+    private void seed() throws Exception {
+        for (int user = 0; user <= BOOKERS; user++) {
+            perform(post("/users").contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"name\":\"user" + user + "\",\"email\":\"user" + user + "@mail.ru\"}"));
+        }
+        for (int item = 0; item < ITEMS; item++) {
+            perform(post("/items").header(HEADER, 1).contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"name\":\"Вещь " + item + "\",\"description\":\"Описание вещи " + item
+                            + "\",\"available\":true}"));
+        }
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (int booker = 2; booker <= BOOKERS + 1; booker++) {
+            for (int i = 0; i < BOOKINGS_PER_BOOKER; i++) {
+                long itemId = (booker * BOOKINGS_PER_BOOKER + i) % ITEMS + 1;
+                LocalDateTime from = start.plusDays(booker * BOOKINGS_PER_BOOKER + i);
+                perform(post("/bookings").header(HEADER, booker).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"itemId\":" + itemId + ",\"start\":\"" + from
+                                + "\",\"end\":\"" + from.plusHours(12) + "\"}"));
+            }
+        }
+    }
+
+    private void measure(String name, RequestBuilder request) throws Exception {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP; i++) {
+            perform(request);
+        }
+        long before = threads.getThreadAllocatedBytes(threadId);
+        long started = System.nanoTime();
+        for (int i = 0; i < MEASURED; i++) {
+            perform(request);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        long micros = (System.nanoTime() - started) / 1000 / MEASURED;
+        log.info("{}: {} КБ на запрос, {} мкс", name, allocated / MEASURED / 1024, micros);
+    }
+
+    private void perform(RequestBuilder request) throws Exception {
+        assertEquals(200, mvc.perform(request).andReturn().getResponse().getStatus());
+    }
+}
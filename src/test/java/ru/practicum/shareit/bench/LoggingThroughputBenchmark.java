@@ -0,0 +1,146 @@
+package ru.practicum.shareit.bench;
+
+import ch.qos.logback.classic.LoggerContext;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.logging.LoggingInitializationContext;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Пропускная способность логирования в профиле по умолчанию (консоль, текст, синхронно) и в prod
+ * (JSON через AsyncAppender, выборка ответов GlobalExceptionHandler) при записи из нескольких потоков.
+ * Конфигурация берётся из logback-spring.xml, вывод консоли уходит в счётчик байт вместо терминала.
+ * Запускается вручную: mvn test -Dtest=LoggingThroughputBenchmark
+ */
+@Slf4j
+class LoggingThroughputBenchmark {
+    private static final int THREADS = 8;
+    private static final int WARMUP_EVENTS = 50_000;
+    private static final int EVENTS = 200_000;
+    // Каждое десятое событие — INFO сервиса, остальные — предупреждения об ответах 404
+    private static final int SERVICE_EVERY = 10;
+    private static final String SAMPLE_EVERY = "SHAREIT_LOG_SAMPLE_EVERY";
+
+    @Test
+    void compareProfiles() throws Exception {
+        List<String> results = new ArrayList<>();
+        results.add(measure("по умолчанию", null));
+        results.add(measure("prod", "prod"));
+        System.setProperty(SAMPLE_EVERY, "1");
+        try {
+            results.add(measure("prod без выборки", "prod"));
+        } finally {
+            System.clearProperty(SAMPLE_EVERY);
+        }
+        configure(null);
+        results.forEach(log::info);
+    }
+
+    private String measure(String name, String profile) throws Exception {
+        PrintStream console = System.out;
+        CountingStream output = new CountingStream();
+        System.setOut(new PrintStream(output, false, StandardCharsets.UTF_8));
+        try {
+            configure(profile);
+            run(WARMUP_EVENTS);
+            output.reset();
+            long callerNanos = run(EVENTS);
+            long stopStarted = System.nanoTime();
+            // Остановка дожидается, пока асинхронный appender допишет очередь
+            ((LoggerContext) LoggerFactory.getILoggerFactory()).stop();
+            long drainNanos = System.nanoTime() - stopStarted;
+            long events = (long) THREADS * EVENTS;
+            return String.format("%s: %,d событий/с в потоках запросов, %,d событий/с до записи последней строки, "
+                            + "записано %,d строк из %,d (%,d КБ)", name, events * 1_000_000_000L / callerNanos,
+                    events * 1_000_000_000L / (callerNanos + drainNanos), output.lines.sum(), events,
+                    output.bytes.sum() / 1024);
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    private static void configure(String profile) {
+        MockEnvironment environment = new MockEnvironment();
+        if (profile != null) {
+            environment.setActiveProfiles(profile);
+        }
+        LoggingSystem loggingSystem = LoggingSystem.get(LoggingThroughputBenchmark.class.getClassLoader());
+        loggingSystem.cleanUp();
+        loggingSystem.beforeInitialize();
+        loggingSystem.initialize(new LoggingInitializationContext(environment), "classpath:logback-spring.xml", null);
+    }
+
+    // Время, за которое все потоки отдали свои события логгеру
+    private static long run(int eventsPerThread) throws Exception {
+        Logger handler = LoggerFactory.getLogger("ru.practicum.shareit.exception.GlobalExceptionHandler");
+        Logger service = LoggerFactory.getLogger("ru.practicum.shareit.booking.service.BookingServiceImpl");
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> workers = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < eventsPerThread; i++) {
+                        if (i % SERVICE_EVERY == 0) {
+                            service.info("Бронирование с ID = {} создано", i);
+                        } else {
+                            handler.warn("Объект не найден: {}", "Вещи с ID = " + i + " не существует!");
+                        }
+                    }
+                    return null;
+                }));
+            }
+            long started = System.nanoTime();
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+            return System.nanoTime() - started;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static final class CountingStream extends OutputStream {
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder lines = new LongAdder();
+
+        @Override
+        public void write(int b) {
+            bytes.increment();
+            if (b == '\n') {
+                lines.increment();
+            }
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            bytes.add(length);
+            for (int i = offset; i < offset + length; i++) {
+                if (buffer[i] == '\n') {
+                    lines.increment();
+                }
+            }
+        }
+
+        private void reset() {
+            bytes.reset();
+            lines.reset();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.dto.BookingParties;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OwnershipIndexTest {
+    private ItemRepository itemRepository;
+    private BookingRepository bookingRepository;
+    private OwnershipIndex index;
+
+    @BeforeEach
+    void setUp() {
+        itemRepository = mock(ItemRepository.class);
+        bookingRepository = mock(BookingRepository.class);
+        index = new OwnershipIndex(mock(JdbcTemplate.class), itemRepository, bookingRepository);
+    }
+
+    @Test
+    void missIsLoadedFromDatabaseAndCached() {
+        when(itemRepository.findOwnerIdById(1L)).thenReturn(Optional.of(5L));
+
+        assertThat(index.itemOwner(1)).isEqualTo(OptionalLong.of(5));
+        assertThat(index.itemOwner(1)).isEqualTo(OptionalLong.of(5));
+
+        verify(itemRepository, times(1)).findOwnerIdById(1L);
+    }
+
+    @Test
+    void invalidationDuringItemFallbackPreventsCaching() {
+        // Пока читается владелец, вещь удаляют: чтение вернёт устаревшего владельца
+        AtomicBoolean deleted = new AtomicBoolean();
+        when(itemRepository.findOwnerIdById(1L)).thenAnswer(invocation -> {
+            if (deleted.compareAndSet(false, true)) {
+                index.invalidate(new CacheInvalidation(CacheRegion.ITEM, 1));
+                return Optional.of(5L);
+            }
+            return Optional.empty();
+        });
+
+        assertThat(index.itemOwner(1)).isEqualTo(OptionalLong.of(5));
+        assertThat(index.itemOwner(1)).isEmpty();
+
+        verify(itemRepository, times(3)).findOwnerIdById(1L);
+    }
+
+    @Test
+    void invalidationDuringBookingFallbackPreventsCaching() {
+        BookingParties stale = new BookingParties(10L, 20L);
+        BookingParties fresh = new BookingParties(11L, 20L);
+        AtomicBoolean updated = new AtomicBoolean();
+        when(bookingRepository.findPartiesById(1L)).thenAnswer(invocation -> {
+            if (updated.compareAndSet(false, true)) {
+                index.invalidate(new CacheInvalidation(CacheRegion.BOOKING, 1));
+                return Optional.of(stale);
+            }
+            return Optional.of(fresh);
+        });
+
+        assertThat(index.bookingParties(1)).contains(stale);
+        assertThat(index.bookingParties(1)).contains(fresh);
+        assertThat(index.bookingParties(1)).contains(fresh);
+
+        // Третье чтение из БД не нужно: инвалидация сама записала свежие данные
+        verify(bookingRepository, times(2)).findPartiesById(1L);
+    }
+}
@@ -0,0 +1,136 @@
+package ru.practicum.shareit.common.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LongLongHashMapTest {
+    private static final long MISSING = -1;
+
+    @Test
+    void putGetAndOverwrite() {
+        LongLongHashMap map = new LongLongHashMap(16);
+
+        map.put(1, 10);
+        map.put(2, 20);
+        map.put(1, 11);
+
+        assertThat(map.size()).isEqualTo(2);
+        assertThat(map.get(1, MISSING)).isEqualTo(11);
+        assertThat(map.get(2, MISSING)).isEqualTo(20);
+        assertThat(map.get(3, MISSING)).isEqualTo(MISSING);
+    }
+
+    @Test
+    void remove() {
+        LongLongHashMap map = new LongLongHashMap(16);
+        map.put(1, 10);
+        map.put(2, 20);
+
+        assertThat(map.remove(1)).isTrue();
+        assertThat(map.remove(1)).isFalse();
+        assertThat(map.remove(3)).isFalse();
+        assertThat(map.size()).isEqualTo(1);
+        assertThat(map.get(1, MISSING)).isEqualTo(MISSING);
+        assertThat(map.get(2, MISSING)).isEqualTo(20);
+    }
+
+    @Test
+    void resizeKeepsAllEntries() {
+        LongLongHashMap map = new LongLongHashMap(2);
+
+        for (long key = 1; key <= 10_000; key++) {
+            map.put(key, key * 3);
+        }
+
+        assertThat(map.size()).isEqualTo(10_000);
+        for (long key = 1; key <= 10_000; key++) {
+            assertThat(map.get(key, MISSING)).isEqualTo(key * 3);
+        }
+    }
+
+    // Цепочка начинается в последней ячейке и продолжается с нулевой
+    @Test
+    void removeAndResizeWithChainWrappingAround() {
+        LongLongHashMap map = new LongLongHashMap(2);
+        int capacity = LongLongHashMap.capacityFor(2);
+        List<Long> keys = keysWithHomeSlot(capacity - 1, capacity, 3);
+        keys.forEach(key -> map.put(key, key + 1));
+
+        assertThat(map.remove(keys.get(0))).isTrue();
+        assertThat(map.get(keys.get(1), MISSING)).isEqualTo(keys.get(1) + 1);
+        assertThat(map.get(keys.get(2), MISSING)).isEqualTo(keys.get(2) + 1);
+
+        map.put(keys.get(0), 7);
+        map.put(Long.MAX_VALUE, 8);
+        map.put(Long.MIN_VALUE, 9);
+
+        assertThat(map.size()).isEqualTo(5);
+        assertThat(map.get(keys.get(0), MISSING)).isEqualTo(7);
+        assertThat(map.get(keys.get(1), MISSING)).isEqualTo(keys.get(1) + 1);
+        assertThat(map.get(keys.get(2), MISSING)).isEqualTo(keys.get(2) + 1);
+        assertThat(map.get(Long.MAX_VALUE, MISSING)).isEqualTo(8);
+        assertThat(map.get(Long.MIN_VALUE, MISSING)).isEqualTo(9);
+    }
+
+    @Test
+    void keyZeroIsRejected() {
+        LongLongHashMap map = new LongLongHashMap(16);
+
+        assertThatThrownBy(() -> map.put(0, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> map.get(0, MISSING)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> map.remove(0)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(map.size()).isZero();
+    }
+
+    @Test
+    void clear() {
+        LongLongHashMap map = new LongLongHashMap(16);
+        map.put(1, 10);
+
+        map.clear();
+
+        assertThat(map.size()).isZero();
+        assertThat(map.get(1, MISSING)).isEqualTo(MISSING);
+    }
+
+    @Test
+    void matchesHashMapOnRandomOperations() {
+        LongLongHashMap map = new LongLongHashMap(4);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(2_000) + 1;
+            if (random.nextInt(3) == 0) {
+                assertThat(map.remove(key)).isEqualTo(expected.remove(key) != null);
+            } else {
+                long value = random.nextLong();
+                map.put(key, value);
+                expected.put(key, value);
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (long key = 1; key <= 2_000; key++) {
+            assertThat(map.get(key, MISSING)).isEqualTo(expected.getOrDefault(key, MISSING));
+        }
+    }
+
+    private static List<Long> keysWithHomeSlot(int slot, int capacity, int count) {
+        List<Long> keys = new ArrayList<>();
+        for (long key = 1; keys.size() < count; key++) {
+            if ((HashMix.mix(key) & (capacity - 1)) == slot) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+}